@@ -4,9 +4,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import javass.gui.CardImages;
 import javass.gui.GraphicalPlayerAdapter;
-import javass.jass.JassGame;
+import javass.host.GameHost;
+import javass.jass.AsyncPlayer;
 import javass.jass.MctsPlayer;
 import javass.jass.PacedPlayer;
 import javass.jass.Player;
@@ -58,6 +63,8 @@ public final class LocalMain extends Application {
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        //Decodes the images while the game is set up.
+        CardImages.preload();
 
         List<String> args = getParameters().getRaw();
         Map<PlayerId, Player> players = new HashMap<>();
@@ -103,6 +110,14 @@ public final class LocalMain extends Application {
         }
 
         int gameSeed = rnd.nextInt();
+        // The game and the pacing of the simulated players share the daemon thread of a host.
+        GameHost host = new GameHost(1);
+        // The human and remote players wait for their card on their own threads, not on the one of the host.
+        ExecutorService waiting = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "player-wait");
+            t.setDaemon(true);
+            return t;
+        });
 
         for (int i = 0; i < PlayerId.COUNT; i++) {
             String[] playerInfo = args.get(i).split(":", -1);
@@ -137,7 +152,8 @@ public final class LocalMain extends Application {
                 }
 
                 // Creates the GraphicalPlayerAdapter.
-                players.put(PlayerId.ALL.get(i), new GraphicalPlayerAdapter());
+                players.put(PlayerId.ALL.get(i),
+                        AsyncPlayer.of(new GraphicalPlayerAdapter(), waiting));
 
                 // Assigns the given name to the player if it is correct.
                 if (playerInfo.length > 1)
@@ -162,7 +178,7 @@ public final class LocalMain extends Application {
                     // Creates the RemotePlayerClient, quits if it can't
                     // connect.
                     players.put(PlayerId.ALL.get(i),
-                            new RemotePlayerClient(adress));
+                            AsyncPlayer.of(new RemotePlayerClient(adress), waiting));
                 } catch (Exception IOError) {
                     System.err.println(
                             "Erreur : Connexion impossible au joueur simulé : "
@@ -208,7 +224,7 @@ public final class LocalMain extends Application {
                 // Creates the simulated player.
                 players.put(PlayerId.ALL.get(i),
                         new PacedPlayer(new MctsPlayer(PlayerId.ALL.get(i),
-                                rnd.nextLong(), iterNbr), MIN_TIME));
+                                rnd.nextLong(), iterNbr), MIN_TIME, host.scheduler()));
 
                 // Assigns the given name to the player if it is correct.
                 if (playerInfo.length > 1)
@@ -222,19 +238,15 @@ public final class LocalMain extends Application {
             }
         }
 
-        // Launches the game with the givem arguments
-        Thread gameThread = new Thread(() -> {
-            JassGame g = new JassGame(gameSeed, players, playerNames);
-            while (!g.isGameOver()) {
-                g.advanceToEndOfNextTrick();
-                try {
-                    Thread.sleep(WAIT_TIME);
-                } catch (Exception e) {
-                }
+        // Launches the game with the givem arguments.
+        GameHost.Table table = host.open(gameSeed, players, playerNames, WAIT_TIME, TimeUnit.MILLISECONDS);
+        table.over().whenComplete((v, e) -> {
+            // A player or the game failing stops the game, which the user must be told.
+            if (e != null) {
+                System.err.println("Erreur : la partie s'est arrêtée : " + e);
+                e.printStackTrace();
             }
         });
-        gameThread.setDaemon(true);
-        gameThread.start();
     }
 
 }
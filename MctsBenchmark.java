@@ -0,0 +1,150 @@
+package javass;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import javass.jass.Card;
+import javass.jass.Card.Color;
+import javass.jass.CardSet;
+import javass.jass.JassGame;
+import javass.jass.MctsPlayer;
+import javass.jass.Player;
+import javass.jass.PlayerId;
+import javass.jass.Score;
+import javass.jass.TeamId;
+import javass.jass.Trick;
+import javass.jass.TurnState;
+
+/**
+ * A benchmark measuring the win rate of a {@link MctsPlayer} team searching
+ * with progressive widening against a team of plain {@link MctsPlayer}s,
+ * see {@link MctsPlayer#setWidening}, both teams searching with the same
+ * number of iterations, for an increasing number of iterations.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class MctsBenchmark {
+
+    private static final int DEFAULT_GAMES = 20;
+    private static final double DEFAULT_WIDENING_COEFF = 2;
+    private static final double DEFAULT_WIDENING_EXPONENT = 0.5;
+    private static final int[] DEFAULT_ITERATIONS = { 100, 250, 500, 1000, 2500, 5000 };
+
+    private MctsBenchmark() {}
+
+    /**
+     * Runs the benchmark and prints one line per number of iterations.
+     * @param args [{games} [{widening coefficient} [{widening exponent} [{iterations}...]]]]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        double coefficient = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_WIDENING_COEFF;
+        double exponent = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_WIDENING_EXPONENT;
+        int[] iterations = DEFAULT_ITERATIONS;
+        if (args.length > 3) {
+            iterations = new int[args.length - 3];
+            for (int i = 0; i < iterations.length; i++)
+                iterations[i] = Integer.parseInt(args[i + 3]);
+        }
+
+        System.out.println("iterations\twins\tgames\twin rate\tms/card");
+        for (int iter : iterations) {
+            int wins = 0;
+            long[] timing = new long[2];
+
+            for (int g = 0; g < games; g++)
+                //Alternates the seats of the two teams to cancel the advantage of a seat.
+                if (play(g, iter, coefficient, exponent, g % 2 == 0 ? TeamId.TEAM_1 : TeamId.TEAM_2, timing))
+                    wins++;
+
+            System.out.printf("%d\t%d\t%d\t%.3f\t%.2f%n", iter, wins, games,
+                    (double) wins / games, timing[0] / 1e6 / Math.max(1, timing[1]));
+        }
+    }
+
+    /*
+     * Plays one game between the widened team and the plain team.
+     * Returns true if the widened team won.
+     */
+    private static boolean play(long seed, int iterations, double coefficient, double exponent, TeamId team, long[] timing) {
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        TeamId[] winner = new TeamId[1];
+        //Only the widened team is timed.
+        long[] plainTiming = new long[2];
+
+        for (PlayerId pId : PlayerId.ALL) {
+            MctsPlayer player = new MctsPlayer(pId, seed * PlayerId.COUNT + pId.ordinal(), iterations);
+            if (pId.team() == team) {
+                player.setWidening(coefficient, exponent);
+                players.put(pId, new BenchmarkedPlayer(player, timing, winner));
+            } else {
+                player.setWidening(0, 0);
+                players.put(pId, new BenchmarkedPlayer(player, plainTiming, winner));
+            }
+            playerNames.put(pId, pId.name());
+        }
+
+        JassGame game = new JassGame(seed, players, playerNames);
+        while (!game.isGameOver())
+            game.advanceToEndOfNextTrick();
+
+        return winner[0] == team;
+    }
+
+    /*
+     * A player forwarding everything to its underlying player, timing its cards and recording the winner.
+     */
+    private static final class BenchmarkedPlayer implements Player {
+        private final Player underlyingPlayer;
+        private final long[] timing;
+        private final TeamId[] winner;
+
+        private BenchmarkedPlayer(Player underlyingPlayer, long[] timing, TeamId[] winner) {
+            this.underlyingPlayer = underlyingPlayer;
+            this.timing = timing;
+            this.winner = winner;
+        }
+
+        @Override
+        public Card cardToPlay(TurnState state, CardSet hand) {
+            long start = System.nanoTime();
+            Card c = underlyingPlayer.cardToPlay(state, hand);
+            timing[0] += System.nanoTime() - start;
+            timing[1]++;
+            return c;
+        }
+
+        @Override
+        public void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            underlyingPlayer.setPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void updateHand(CardSet newHand) {
+            underlyingPlayer.updateHand(newHand);
+        }
+
+        @Override
+        public void setTrump(Color trump) {
+            underlyingPlayer.setTrump(trump);
+        }
+
+        @Override
+        public void updateTrick(Trick newTrick) {
+            underlyingPlayer.updateTrick(newTrick);
+        }
+
+        @Override
+        public void updateScore(Score score) {
+            underlyingPlayer.updateScore(score);
+        }
+
+        @Override
+        public void setWinningTeam(TeamId winningTeam) {
+            winner[0] = winningTeam;
+            underlyingPlayer.setWinningTeam(winningTeam);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package javass;
+
+import java.util.SplittableRandom;
+
+import javass.jass.Card.Color;
+import javass.jass.Jass;
+import javass.jass.PackedCard;
+import javass.jass.PackedCardSet;
+import javass.jass.PackedCardSetBatch;
+
+/**
+ * A benchmark comparing the operations of {@link PackedCardSetBatch} with
+ * the calls of the same operations of {@link PackedCardSet} on each set.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class PackedCardSetBenchmark {
+    
+    private static final int DEFAULT_SETS = 1 << 20;
+    private static final int DEFAULT_ROUNDS = 20;
+    
+    private PackedCardSetBenchmark() {}
+    
+    /**
+     * Runs the benchmark on random hands and prints the time per set of each version of each operation.
+     * @param args [{sets} [{rounds}]]
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SETS;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+        
+        SplittableRandom rng = new SplittableRandom(0);
+        long[] sets = new long[n];
+        for (int i = 0; i < n; i++)
+            while (PackedCardSet.size(sets[i]) < Jass.HAND_SIZE)
+                sets[i] = PackedCardSet.add(sets[i], PackedCardSet.get(PackedCardSet.ALL_CARDS, rng.nextInt(PackedCardSet.size(PackedCardSet.ALL_CARDS))));
+        long mask = sets[0] | sets[1];
+        int card = PackedCardSet.get(PackedCardSet.ALL_CARDS, 0);
+        Color trump = Color.ALL.get(2);
+        long[] longs = new long[n];
+        int[] ints = new int[n];
+        byte[] bytes = new byte[n];
+        
+        System.out.println("operation\tscalar ns/set\tbatch ns/set");
+        for (int r = 0; r < rounds; r++) {
+            boolean last = r == rounds - 1;
+            
+            report("size", last, n, () -> { for (int i = 0; i < n; i++) ints[i] = PackedCardSet.size(sets[i]); },
+                    () -> PackedCardSetBatch.sizes(sets, ints));
+            report("intersection", last, n, () -> { for (int i = 0; i < n; i++) longs[i] = PackedCardSet.intersection(sets[i], mask); },
+                    () -> PackedCardSetBatch.intersection(sets, mask, longs));
+            report("subsetOfColor", last, n, () -> { for (int i = 0; i < n; i++) longs[i] = PackedCardSet.subsetOfColor(sets[i], trump); },
+                    () -> PackedCardSetBatch.subsetOfColor(sets, trump, longs));
+            report("points", last, n, () -> { for (int i = 0; i < n; i++) ints[i] = PackedCardSet.points(sets[i], trump); },
+                    () -> PackedCardSetBatch.points(sets, trump, ints));
+            report("contains", last, n, () -> { for (int i = 0; i < n; i++) bytes[i] = (byte) (PackedCardSet.contains(sets[i], card) ? 1 : 0); },
+                    () -> PackedCardSetBatch.contains(sets, card, bytes));
+        }
+        //Keeps the results alive.
+        if (ints[0] + longs[0] + bytes[0] == PackedCard.INVALID)
+            System.out.println();
+    }
+    
+    /*
+     * Times both versions of an operation, printing their times per set if asked.
+     */
+    private static void report(String name, boolean print, int n, Runnable scalar, Runnable batch) {
+        long start = System.nanoTime();
+        scalar.run();
+        long middle = System.nanoTime();
+        batch.run();
+        long end = System.nanoTime();
+        if (print)
+            System.out.printf("%s\t%.3f\t%.3f%n", name, (double) (middle - start) / n, (double) (end - middle) / n);
+    }
+}
@@ -2,6 +2,7 @@ package javass;
 
 import java.io.IOException;
 
+import javass.gui.CardImages;
 import javass.gui.GraphicalPlayerAdapter;
 import javass.net.RemotePlayerServer;
 import javafx.application.Application;
@@ -25,6 +26,8 @@ public final class RemoteMain extends Application{
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        //Decodes the images while waiting for the game.
+        CardImages.preload();
         Thread gameThread = new Thread(() -> {
             try {
                 new RemotePlayerServer(new GraphicalPlayerAdapter()).run();
@@ -0,0 +1,147 @@
+package javass.gui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javafx.animation.AnimationTimer;
+
+import javass.jass.Card.Color;
+import javass.jass.CardSet;
+import javass.jass.Jass;
+import javass.jass.PackedScore;
+import javass.jass.Score;
+import javass.jass.TeamId;
+import javass.jass.Trick;
+
+/**
+ * Coalesces the updates of the beans of a {@link GraphicalPlayer}: the game
+ * thread only writes the latest packed states into slots, and once per frame
+ * the JavaFX thread applies the states written since the previous frame,
+ * skipping the intermediate ones.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+final class BeanUpdater extends AnimationTimer {
+
+    //The value of an empty slot, which is not the one of a valid packed state.
+    private static final long NO_UPDATE = -1L;
+
+    private final ScoreBean scoreBean;
+    private final TrickBean trickBean;
+    private final HandBean handBean;
+
+    private final AtomicLong score = new AtomicLong(NO_UPDATE);
+    private final AtomicLong trick = new AtomicLong(NO_UPDATE);
+    //The latest full hand is applied before the latest hand so that a new turn is never missed,
+    //both being written and read together.
+    private final Object handLock = new Object();
+    private long fullHand = NO_UPDATE;
+    private long hand = NO_UPDATE;
+    private final AtomicLong playableCards = new AtomicLong(NO_UPDATE);
+    private final AtomicReference<Color> trump = new AtomicReference<>();
+    private final AtomicReference<TeamId> winningTeam = new AtomicReference<>();
+
+    /**
+     * An updater of the given beans, which must be started on the JavaFX thread.
+     * @param scoreBean the bean of the score.
+     * @param trickBean the bean of the trick.
+     * @param handBean the bean of the hand.
+     */
+    BeanUpdater(ScoreBean scoreBean, TrickBean trickBean, HandBean handBean) {
+        this.scoreBean = scoreBean;
+        this.trickBean = trickBean;
+        this.handBean = handBean;
+    }
+
+    /**
+     * Writes the latest score.
+     * @param newScore the new score.
+     */
+    void setScore(Score newScore) {
+        score.set(newScore.packed());
+    }
+
+    /**
+     * Writes the latest trick.
+     * @param newTrick the new trick.
+     */
+    void setTrick(Trick newTrick) {
+        trick.set(Integer.toUnsignedLong(newTrick.packed()));
+    }
+
+    /**
+     * Writes the latest hand.
+     * @param newHand the new hand.
+     */
+    void setHand(CardSet newHand) {
+        synchronized (handLock) {
+            if (newHand.size() == Jass.HAND_SIZE)
+                fullHand = newHand.packed();
+            hand = newHand.packed();
+        }
+    }
+
+    /**
+     * Writes the latest playable cards.
+     * @param newPlayableCards the new playable cards.
+     */
+    void setPlayableCards(CardSet newPlayableCards) {
+        playableCards.set(newPlayableCards.packed());
+    }
+
+    /**
+     * Writes the latest trump.
+     * @param newTrump the new trump.
+     */
+    void setTrump(Color newTrump) {
+        trump.set(newTrump);
+    }
+
+    /**
+     * Writes the winning team.
+     * @param newWinningTeam the team that won the game.
+     */
+    void setWinningTeam(TeamId newWinningTeam) {
+        winningTeam.set(newWinningTeam);
+    }
+
+    @Override
+    public void handle(long now) {
+        Color newTrump = trump.getAndSet(null);
+        if (newTrump != null)
+            trickBean.setTrump(newTrump);
+
+        long newFullHand;
+        long newHand;
+        synchronized (handLock) {
+            newFullHand = fullHand;
+            newHand = hand;
+            fullHand = hand = NO_UPDATE;
+        }
+        if (newFullHand != NO_UPDATE)
+            handBean.setHand(newFullHand);
+        if (newHand != NO_UPDATE && newHand != newFullHand)
+            handBean.setHand(newHand);
+
+        long newPlayableCards = playableCards.getAndSet(NO_UPDATE);
+        if (newPlayableCards != NO_UPDATE)
+            handBean.setPlayableCards(newPlayableCards);
+
+        long newTrick = trick.getAndSet(NO_UPDATE);
+        if (newTrick != NO_UPDATE)
+            trickBean.setTrick((int) newTrick);
+
+        long newScore = score.getAndSet(NO_UPDATE);
+        if (newScore != NO_UPDATE)
+            for (TeamId id : TeamId.ALL) {
+                scoreBean.setTurnPoints(id, PackedScore.turnPoints(newScore, id));
+                scoreBean.setGamePoints(id, PackedScore.gamePoints(newScore, id));
+                scoreBean.setTotalPoints(id, PackedScore.totalPoints(newScore, id));
+            }
+
+        TeamId newWinningTeam = winningTeam.getAndSet(null);
+        if (newWinningTeam != null)
+            scoreBean.setWinningTeam(newWinningTeam);
+    }
+}
@@ -0,0 +1,68 @@
+package javass.gui;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableMap;
+import javafx.scene.image.Image;
+import javass.jass.Card;
+import javass.jass.Card.Color;
+import javass.jass.Card.Rank;
+
+/**
+ * The images of the cards and of the trumps, loaded once for the whole
+ * process and shared by all the {@link GraphicalPlayer}s. The images are
+ * decoded in the background by JavaFX, an image view showing its image once
+ * it is loaded.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class CardImages {
+    private CardImages() {}
+    
+    /*
+     * Creates the images the first time one of them is needed.
+     */
+    private static final class Holder {
+        private static final ObservableMap<Card, Image> CARDS;
+        private static final ObservableMap<Color, Image> TRUMPS;
+        static {
+            Map<Card, Image> cards = new HashMap<>();
+            for (Color color : Color.ALL)
+                for (Rank rank : Rank.ALL)
+                    cards.put(Card.of(color, rank), new Image("/card_" + color.ordinal() + "_"
+                            + rank.ordinal() + "_240.png", true));
+            CARDS = FXCollections.unmodifiableObservableMap(FXCollections.observableMap(cards));
+            
+            Map<Color, Image> trumps = new HashMap<>();
+            for (Color color : Color.ALL)
+                trumps.put(color, new Image("/trump_" + color.ordinal() + ".png", true));
+            TRUMPS = FXCollections.unmodifiableObservableMap(FXCollections.observableMap(trumps));
+        }
+    }
+    
+    /**
+     * Starts loading the images in the background, so that the first window does not wait for them.
+     */
+    public static void preload() {
+        Holder.CARDS.size();
+    }
+    
+    /**
+     * Gives the images of the cards.
+     * @return an unmodifiable observable map associating each card with its image.
+     */
+    public static ObservableMap<Card, Image> cards() {
+        return Holder.CARDS;
+    }
+    
+    /**
+     * Gives the images of the trumps.
+     * @return an unmodifiable observable map associating each color with its trump image.
+     */
+    public static ObservableMap<Color, Image> trumps() {
+        return Holder.TRUMPS;
+    }
+}
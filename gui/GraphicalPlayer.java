@@ -7,7 +7,6 @@ import javafx.beans.binding.Bindings;
 import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableMap;
 import javafx.geometry.HPos;
 import javafx.geometry.Pos;
@@ -21,9 +20,8 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javass.jass.Card;
-import javass.jass.Card.Color;
-import javass.jass.Card.Rank;
 import javass.jass.Jass;
+import javass.jass.PackedCardSet;
 import javass.jass.PlayerId;
 import javass.jass.TeamId;
 import javafx.scene.layout.Pane;
@@ -69,10 +67,8 @@ public final class GraphicalPlayer {
     private final HandBean hb;
     private final StackPane victory;
     private final BlockingQueue<Card> queue;
-    private final ObservableMap<Card, Image> cardMap = FXCollections
-            .observableHashMap();
-    private final ObservableMap<Card.Color, Image> trumpMap = FXCollections
-            .observableHashMap();
+    private final ObservableMap<Card, Image> cardMap = CardImages.cards();
+    private final ObservableMap<Card.Color, Image> trumpMap = CardImages.trumps();
 
     /**
      * The constructor for the graphic interface of a given player.
@@ -168,12 +164,6 @@ public final class GraphicalPlayer {
         trickPane.setStyle(
                 "-fx-background-color: whitesmoke; fx-padding: 5px; -fx-border-width: 3px 0px; -fx-border-style: solid; -fx-border-color: gray;-fx-alignment: center;");
 
-        //Associates a trump image with a trump color in the trump map, if it is empty.
-        if(trumpMap.isEmpty())
-            for (Card.Color color : Color.ALL) {
-                trumpMap.put(color, new Image("/trump_" + color.ordinal() + ".png"));
-            }
-
         //Sets up the image of the trump color.
         ImageView trumpIm = new ImageView();
         trumpIm.imageProperty()
@@ -256,8 +246,9 @@ public final class GraphicalPlayer {
             
             //Decrease the opacity of unplayable cards
             BooleanBinding isPlayable = Bindings.createBooleanBinding(
-                    () -> hb.playableCards().contains(hb.hand().get(index)),
-                    hb.playableCards(), hb.hand());
+                    () -> hb.hand().get(index) != null && PackedCardSet.contains(
+                            hb.packedPlayableCardsProperty().get(), hb.hand().get(index).packed()),
+                    hb.packedPlayableCardsProperty(), hb.hand());
             img.opacityProperty()
                     .bind(Bindings.when(isPlayable).then(FULL_OPACITY).otherwise(NOT_PLAYABLE_OPACITY));
             img.disableProperty().bind(isPlayable.not());
@@ -292,17 +283,6 @@ public final class GraphicalPlayer {
     private ImageView getImage(PlayerId pId) {
         ImageView img = new ImageView();
 
-        //Associates a card image with a card in the card map, if it is empty.
-        if (cardMap.isEmpty()) {
-            for (Rank rank : Card.Rank.ALL) {
-                for (Color color : Card.Color.ALL) {
-
-                    Card c = Card.of(color, rank);
-                    cardMap.put(c, new Image("/card_" + color.ordinal() + "_"
-                            + rank.ordinal() + "_240.png"));
-                }
-            }
-        }
         //Finds the image at the given pId.
         img.imageProperty().bind(
                 Bindings.valueAt(cardMap, Bindings.valueAt(tb.trick(), pId)));
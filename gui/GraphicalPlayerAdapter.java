@@ -17,7 +17,8 @@ import javass.jass.TurnState;
 import javass.jass.Card.Color;
 
 /**
- * A {@link Player} that has a graphical interface.
+ * A {@link Player} that has a graphical interface, whose updates are
+ * coalesced by a {@link BeanUpdater} and applied once per frame.
  * @author Charles BEAUVILLE
  * @author Celia HOUSSIAUX
  *
@@ -27,6 +28,7 @@ public final class GraphicalPlayerAdapter implements Player {
     private final ScoreBean scoreBean;
     private final HandBean handBean;
     private final TrickBean trickBean;
+    private final BeanUpdater updater;
     private GraphicalPlayer graphicalPlayer;
     private final BlockingQueue<Card> queue;
 
@@ -37,6 +39,7 @@ public final class GraphicalPlayerAdapter implements Player {
         scoreBean = new ScoreBean();
         handBean = new HandBean();
         trickBean = new TrickBean();
+        updater = new BeanUpdater(scoreBean, trickBean, handBean);
 
         queue = new ArrayBlockingQueue<Card>(1);
     }
@@ -44,16 +47,12 @@ public final class GraphicalPlayerAdapter implements Player {
     @Override
     public Card cardToPlay(TurnState state, CardSet hand) {
 
-        Platform.runLater(() -> {
-            handBean.setPlayableCards(state.trick().playableCards(hand));
-        });
+        updater.setPlayableCards(state.trick().playableCards(hand));
 
         Card c;
         try {
             c = queue.take();
-            Platform.runLater(() -> {
-                handBean.setPlayableCards(CardSet.EMPTY);
-            });
+            updater.setPlayableCards(CardSet.EMPTY);
             return c;
         } catch (InterruptedException e) {
             throw new Error(e);
@@ -66,45 +65,32 @@ public final class GraphicalPlayerAdapter implements Player {
                 trickBean, handBean, queue);
         Platform.runLater(() -> {
             graphicalPlayer.createStage().show();
+            updater.start();
         });
     }
 
     @Override
     public void setTrump(Color trump) {
-        Platform.runLater(() -> {
-            trickBean.setTrump(trump);
-        });
+        updater.setTrump(trump);
     }
 
     @Override
     public void setWinningTeam(TeamId winningTeam) {
-        Platform.runLater(() -> {
-            scoreBean.setWinningTeam(winningTeam);
-        });
+        updater.setWinningTeam(winningTeam);
     }
 
     @Override
     public void updateHand(CardSet newHand) {
-        Platform.runLater(() -> {
-            handBean.setHand(newHand);
-        });
+        updater.setHand(newHand);
     }
 
     @Override
     public void updateScore(Score score) {
-        Platform.runLater(() -> {
-            for (TeamId id : TeamId.ALL) {
-                scoreBean.setTurnPoints(id, score.turnPoints(id));
-                scoreBean.setGamePoints(id, score.gamePoints(id));
-                scoreBean.setTotalPoints(id, score.totalPoints(id));
-            }
-        });
+        updater.setScore(score);
     }
 
     @Override
     public void updateTrick(Trick newTrick) {
-        Platform.runLater(() -> {
-            trickBean.setTrick(newTrick);
-        });
+        updater.setTrick(newTrick);
     }
 }
@@ -1,16 +1,22 @@
 package javass.gui;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 import javass.jass.Card;
 import javass.jass.CardSet;
 import javass.jass.Jass;
+import javass.jass.PackedCardSet;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableSet;
 
 /**
- * A bean containing the hand properties.
+ * A bean containing the hand properties. Each update compares the packed
+ * versions of the old and new sets of cards and only touches the cards that
+ * changed, so that it fires at most one change event per property.
  * @author Charles BEAUVILLE
  * @author Celia HOUSSIAUX
  *
@@ -19,6 +25,9 @@ public final class HandBean {
     
     private final ObservableList<Card> hand = FXCollections.observableArrayList(Arrays.asList(new Card[Jass.HAND_SIZE]));
     private final ObservableSet<Card> playableCards = FXCollections.observableSet();
+    private final SimpleLongProperty packedPlayableCards = new SimpleLongProperty(PackedCardSet.EMPTY);
+    private final Card[] slots = new Card[Jass.HAND_SIZE];
+    private long packedHand = PackedCardSet.EMPTY;
     
     /**
      * Gives the observable list of the hand.
@@ -33,11 +42,40 @@ public final class HandBean {
      * @param newHand a CardSet to define the new hand.
      */
     public void setHand(CardSet newHand) {
-        for (int i = 0; i < hand.size(); i++)
-            if(newHand.size() == Jass.HAND_SIZE)
-                hand.set(i, newHand.get(i));
-            else if(hand.get(i) != null && !newHand.contains(hand.get(i)))
-                hand.set(i, null);
+        setHand(newHand.packed());
+    }
+    
+    /**
+     * Sets the observable list of the hand to the given hand: a full hand replaces
+     * all the cards, a smaller one empties the slots of the cards it does not contain.
+     * @param pkNewHand the packed version of the new hand.
+     */
+    public void setHand(long pkNewHand) {
+        if (pkNewHand == packedHand)
+            return;
+        packedHand = pkNewHand;
+        
+        int changed = 0;
+        int lastChanged = 0;
+        for (int i = 0; i < slots.length; i++) {
+            Card c = slots[i];
+            if (PackedCardSet.size(pkNewHand) == Jass.HAND_SIZE)
+                c = Card.ofPacked(PackedCardSet.get(pkNewHand, i));
+            else if (c != null && !PackedCardSet.contains(pkNewHand, c.packed()))
+                c = null;
+            
+            if (!Objects.equals(c, slots[i])) {
+                slots[i] = c;
+                changed++;
+                lastChanged = i;
+            }
+        }
+        
+        //A played card changes one slot, a new hand replaces them all in one change.
+        if (changed == 1)
+            hand.set(lastChanged, slots[lastChanged]);
+        else if (changed > 1)
+            hand.setAll(slots);
     }
     
     /**
@@ -48,15 +86,35 @@ public final class HandBean {
         return FXCollections.unmodifiableObservableSet(playableCards);
     }
     
+    /**
+     * Gives the property of the packed version of the set of playable cards,
+     * changing once per update of the playable cards.
+     * @return a ReadOnlyLongProperty the packed version of the playable cards.
+     */
+    public ReadOnlyLongProperty packedPlayableCardsProperty() {
+        return packedPlayableCards;
+    }
+    
     /**
      * Sets the observable list of the playableCards to the given playableCards.
      * @param newPlayableCards a CardSet to define the new playableCards.
      */
     public void setPlayableCards(CardSet newPlayableCards) {
-        playableCards.clear();
+        setPlayableCards(newPlayableCards.packed());
+    }
+    
+    /**
+     * Sets the playable cards, adding and removing only the cards that changed.
+     * @param pkNewPlayableCards the packed version of the new playable cards.
+     */
+    public void setPlayableCards(long pkNewPlayableCards) {
+        long pkOldPlayableCards = packedPlayableCards.get();
         
-        for (int i = 0; i < newPlayableCards.size(); i++)
-            playableCards.add(newPlayableCards.get(i));
-
+        for (long s = PackedCardSet.difference(pkOldPlayableCards, pkNewPlayableCards); s != PackedCardSet.EMPTY; s &= s - 1)
+            playableCards.remove(Card.ofPacked(Long.numberOfTrailingZeros(s)));
+        for (long s = PackedCardSet.difference(pkNewPlayableCards, pkOldPlayableCards); s != PackedCardSet.EMPTY; s &= s - 1)
+            playableCards.add(Card.ofPacked(Long.numberOfTrailingZeros(s)));
+        
+        packedPlayableCards.set(pkNewPlayableCards);
     }
 }
@@ -2,6 +2,7 @@ package javass.gui;
 
 import javass.jass.Card;
 import javass.jass.Card.Color;
+import javass.jass.PackedTrick;
 import javass.jass.PlayerId;
 import javass.jass.Trick;
 import javafx.beans.property.ReadOnlyObjectProperty;
@@ -10,7 +11,8 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableMap;
 
 /**
- * A bean containing the trick properties.
+ * A bean containing the trick properties, updated by comparing the packed
+ * versions of the old and new tricks.
  * @author Charles BEAUVILLE
  * @author Celia HOUSSIAUX
  *
@@ -20,6 +22,7 @@ public final class TrickBean {
     private final SimpleObjectProperty<Color> trumpProperty = new SimpleObjectProperty<Color>();
     private final SimpleObjectProperty<PlayerId> winningPlayerProperty = new SimpleObjectProperty<PlayerId>();
     private final ObservableMap<PlayerId, Card> trickMap = FXCollections.observableHashMap();
+    private int packedTrick = PackedTrick.INVALID;
     
     /**
      * Gives the trump property of the trick.
@@ -50,12 +53,30 @@ public final class TrickBean {
      * @param newTrick a trick to change the trick property.
      */
     public void setTrick(Trick newTrick) {
-        trickMap.clear();
+        setTrick(newTrick.packed());
+    }
+    
+    /**
+     * Sets the trick property to the given trick, putting or removing only the
+     * cards that changed since the previous trick.
+     * @param pkNewTrick the packed version of the new trick.
+     */
+    public void setTrick(int pkNewTrick) {
+        if (pkNewTrick == packedTrick)
+            return;
+        packedTrick = pkNewTrick;
         
-        for (int i = 0; i < newTrick.size(); i++)
-            trickMap.put(newTrick.player(i), newTrick.card(i));
+        int size = PackedTrick.size(pkNewTrick);
+        for (int i = 0; i < PlayerId.COUNT; i++) {
+            PlayerId player = PackedTrick.player(pkNewTrick, i);
+            Card card = i < size ? Card.ofPacked(PackedTrick.card(pkNewTrick, i)) : null;
+            if (card == null)
+                trickMap.remove(player);
+            else if (!card.equals(trickMap.get(player)))
+                trickMap.put(player, card);
+        }
         
-        winningPlayerProperty.set(newTrick.winningPlayer());
+        winningPlayerProperty.set(PackedTrick.winningPlayer(pkNewTrick));
     }
     
     /**
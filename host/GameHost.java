@@ -0,0 +1,289 @@
+package javass.host;
+
+import static javass.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javass.jass.AsyncPlayer;
+import javass.jass.Card;
+import javass.jass.JassGame;
+import javass.jass.PackedTrick;
+import javass.jass.Player;
+import javass.jass.PlayerId;
+import javass.jass.PlayoutPolicy;
+import javass.metrics.LatencyHistogram;
+
+/**
+ * A service hosting many games of Jass at once on a few threads. Each table
+ * plays its game a trick at a time with {@link JassGame#advanceToEndOfNextTrickAsync},
+ * and waits between two tricks with a timer of the host instead of a sleeping
+ * thread. The players blocking while they choose their cards, like humans or
+ * remote players, should be made asynchronous with {@link AsyncPlayer#of} so
+ * that they do not hold a thread of the host.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class GameHost implements AutoCloseable {
+    
+    private static final int DEFAULT_TABLES = 1000;
+    private static final long DEFAULT_TRICK_DELAY = 10;
+    private static final long REPORT_PERIOD = 1000;
+    
+    private final ScheduledExecutorService scheduler;
+    private final Set<Table> tables = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final AtomicLong openedTables = new AtomicLong();
+    private final LongAdder tricks = new LongAdder();
+    //Guarded by itself, the tricks of the tables whose game is over.
+    private final LatencyHistogram overTrickLatency = new LatencyHistogram();
+    private final long start = System.nanoTime();
+    
+    /**
+     * Creates a host playing its games on the given number of threads.
+     * @param threads the number of threads of the host.
+     * @throws IllegalArgumentException if threads is not positive.
+     */
+    public GameHost(int threads) {
+        checkArgument(threads > 0);
+        
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, "game-host");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+    
+    /**
+     * Hosts games between random players and prints the state of the host every second until they are over.
+     * @param args [{tables} [{threads} [{trick delay in ms}]]]
+     * @throws InterruptedException if the main thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TABLES;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long trickDelay = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_TRICK_DELAY;
+        
+        try (GameHost host = new GameHost(threads)) {
+            Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+            for (PlayerId p : PlayerId.ALL)
+                playerNames.put(p, p.name());
+            
+            CompletableFuture<?>[] over = new CompletableFuture<?>[tableCount];
+            for (int i = 0; i < tableCount; i++) {
+                SplittableRandom rng = new SplittableRandom(i);
+                Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+                //The players of a table play one after the other, so they may share its generator.
+                for (PlayerId p : PlayerId.ALL)
+                    players.put(p, (state, hand) -> Card.ofPacked(PlayoutPolicy.RANDOM.cardToPlay(state.packedTrick(),
+                            PackedTrick.playableCards(state.packedTrick(), hand.packed()), rng)));
+                over[i] = host.open(i, players, playerNames, trickDelay, TimeUnit.MILLISECONDS).over();
+            }
+            
+            CompletableFuture<Void> all = CompletableFuture.allOf(over);
+            while (!all.isDone()) {
+                System.out.println(host);
+                Thread.sleep(REPORT_PERIOD);
+            }
+            System.out.println(host);
+        }
+    }
+    
+    /**
+     * Opens a table and starts its game.
+     * @param rngSeed the seed of the game.
+     * @param players a map between the {@link PlayerId}s and the {@link Player}s of the game.
+     * @param playerNames a map between the {@link PlayerId}s and the names of the players.
+     * @param trickDelay the time to wait between two tricks.
+     * @param unit the unit of trickDelay.
+     * @throws IllegalArgumentException if trickDelay is negative.
+     * @return the table of the game.
+     */
+    public Table open(long rngSeed, Map<PlayerId, Player> players, Map<PlayerId, String> playerNames, long trickDelay, TimeUnit unit) {
+        checkArgument(trickDelay >= 0);
+        
+        Table table = new Table(openedTables.incrementAndGet(), new JassGame(rngSeed, players, playerNames), unit.toNanos(trickDelay));
+        tables.add(table);
+        scheduler.execute(table::playTrick);
+        return table;
+    }
+    
+    /**
+     * Gives the scheduler of the host, on which its players may also wait, see {@link javass.jass.PacedPlayer}.
+     * @return the scheduler playing the games of the host.
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Gives the number of tables whose game is not over.
+     * @return the number of live tables.
+     */
+    public int liveTables() {
+        return tables.size();
+    }
+    
+    /**
+     * Gives the number of tables opened since the host was created.
+     * @return the number of tables opened.
+     */
+    public long openedTables() {
+        return openedTables.get();
+    }
+    
+    /**
+     * Gives the number of tricks played by all the tables.
+     * @return the number of tricks played.
+     */
+    public long tricks() {
+        return tricks.sum();
+    }
+    
+    /**
+     * Gives the number of tricks played per second since the host was created.
+     * @return the throughput of the host in tricks per second.
+     */
+    public double tricksPerSecond() {
+        return tricks.sum() * 1e9 / Math.max(1, System.nanoTime() - start);
+    }
+    
+    /**
+     * Gives the histogram of the time the tables took to play their tricks, without the delays between them.
+     * @return a new histogram, merging those of all the tables.
+     */
+    public LatencyHistogram trickLatency() {
+        LatencyHistogram h = new LatencyHistogram();
+        synchronized (overTrickLatency) {
+            h.add(overTrickLatency);
+        }
+        for (Table t : tables)
+            h.add(t.trickLatency());
+        return h;
+    }
+    
+    /**
+     * Gives a summary of the state of the host: its tables, its throughput and the latency of the tricks.
+     * @return a line of text.
+     */
+    @Override
+    public String toString() {
+        return String.format("tables %d live / %d opened, %d tricks, %.1f tricks/s, trick latency %s",
+                liveTables(), openedTables(), tricks(), tricksPerSecond(), trickLatency());
+    }
+    
+    /**
+     * Stops the host: the games of the live tables are abandoned.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (Table t : tables)
+            t.finish(new IllegalStateException("The host was closed"));
+    }
+    
+    /**
+     * A table of a {@link GameHost}, playing one game.
+     * @author Charles BEAUVILLE
+     * @author Celia HOUSSIAUX
+     *
+     */
+    public final class Table {
+        private final long id;
+        private final JassGame game;
+        private final long trickDelay;
+        private final CompletableFuture<Void> over = new CompletableFuture<>();
+        //Guarded by this, the tricks being recorded by the threads of the host and read by any thread.
+        private final LatencyHistogram trickLatency = new LatencyHistogram();
+        private long tricks;
+        
+        private Table(long id, JassGame game, long trickDelay) {
+            this.id = id;
+            this.game = game;
+            this.trickDelay = trickDelay;
+        }
+        
+        /**
+         * Gives the identifier of the table, its rank among the tables opened by the host.
+         * @return the identifier of the table, from 1.
+         */
+        public long id() {
+            return id;
+        }
+        
+        /**
+         * Gives a future completed when the game of the table is over, or exceptionally if a player failed
+         * or the host was closed.
+         * @return the future of the end of the game.
+         */
+        public CompletableFuture<Void> over() {
+            return over;
+        }
+        
+        /**
+         * Gives the number of tricks played at the table.
+         * @return the number of tricks played.
+         */
+        public synchronized long tricks() {
+            return tricks;
+        }
+        
+        /**
+         * Gives the histogram of the time the table took to play its tricks, without the delays between them.
+         * @return a copy of the histogram of the table.
+         */
+        public synchronized LatencyHistogram trickLatency() {
+            LatencyHistogram h = new LatencyHistogram();
+            h.add(trickLatency);
+            return h;
+        }
+        
+        /*
+         * Plays the next trick, then schedules the following one after the delay of the table.
+         */
+        private void playTrick() {
+            long trickStart = System.nanoTime();
+            game.advanceToEndOfNextTrickAsync(scheduler).whenComplete((v, e) -> {
+                synchronized (this) {
+                    trickLatency.record(System.nanoTime() - trickStart);
+                    tricks++;
+                }
+                GameHost.this.tricks.increment();
+                
+                if (e != null)
+                    finish(e);
+                else if (game.isGameOver())
+                    finish(null);
+                else if (!scheduler.isShutdown())
+                    scheduler.schedule(this::playTrick, trickDelay, TimeUnit.NANOSECONDS);
+            });
+        }
+        
+        /*
+         * Closes the table, with the given failure or normally if it is null.
+         */
+        private void finish(Throwable failure) {
+            if (!tables.remove(this))
+                return;
+            synchronized (overTrickLatency) {
+                overTrickLatency.add(trickLatency());
+            }
+            if (failure == null)
+                over.complete(null);
+            else
+                over.completeExceptionally(failure);
+        }
+    }
+}
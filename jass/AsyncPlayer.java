@@ -0,0 +1,49 @@
+package javass.jass;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link Player} choosing its cards asynchronously: instead of blocking the
+ * thread of the game while it waits for a human, a remote client or a search,
+ * it returns a future completed with its card. A {@link JassGame} made of
+ * such players can be advanced by {@link JassGame#advanceToEndOfNextTrickAsync}
+ * without blocking any thread.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public interface AsyncPlayer extends Player {
+    
+    /**
+     * Gives an asynchronous version of the given player, calling its {@link Player#cardToPlay}
+     * on the given executor and its other methods directly.
+     * @param player a synchronous player, which may block while it chooses its card.
+     * @param executor the executor calling the cardToPlay method of the player.
+     * @return an asynchronous player forwarding everything to the given player.
+     */
+    static AsyncPlayer of(Player player, Executor executor) {
+        return new AsyncPlayerAdapter(player, executor);
+    }
+    
+    /**
+     * Chooses asynchronously which card to play. The state and the hand do not change until the
+     * future is completed, and no other method of the player is called meanwhile.
+     * @param state the current TurnState of the game.
+     * @param hand the current hand of the Player.
+     * @return a future completed with the card to be played.
+     */
+    CompletableFuture<Card> cardToPlayAsync(TurnState state, CardSet hand);
+    
+    /**
+     * Chooses which card to play, waiting for the future given by {@link #cardToPlayAsync}.
+     * @param state the current TurnState of the game.
+     * @param hand the current hand of the Player.
+     * @throws java.util.concurrent.CompletionException if the future completed exceptionally.
+     * @return the card to be played.
+     */
+    @Override
+    default Card cardToPlay(TurnState state, CardSet hand) {
+        return cardToPlayAsync(state, hand).join();
+    }
+}
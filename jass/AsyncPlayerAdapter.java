@@ -0,0 +1,63 @@
+package javass.jass;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javass.jass.Card.Color;
+
+/**
+ * An {@link AsyncPlayer} calling the cardToPlay method of a synchronous {@link Player} on an executor.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+final class AsyncPlayerAdapter implements AsyncPlayer {
+    private final Player underlyingPlayer;
+    private final Executor executor;
+    
+    /**
+     * An {@link AsyncPlayer} calling the cardToPlay method of a synchronous {@link Player} on an executor.
+     * @param underlyingPlayer the {@link Player} associated with this adapter.
+     * @param executor the executor calling the cardToPlay method of the underlying player.
+     */
+    AsyncPlayerAdapter(Player underlyingPlayer, Executor executor) {
+        this.underlyingPlayer = underlyingPlayer;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Card> cardToPlayAsync(TurnState state, CardSet hand) {
+        return CompletableFuture.supplyAsync(() -> underlyingPlayer.cardToPlay(state, hand), executor);
+    }
+
+    @Override
+    public void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+        underlyingPlayer.setPlayers(ownId, playerNames);
+    }
+
+    @Override
+    public void updateHand(CardSet newHand) {
+        underlyingPlayer.updateHand(newHand);
+    }
+
+    @Override
+    public void setTrump(Color trump) {
+        underlyingPlayer.setTrump(trump);
+    }
+
+    @Override
+    public void updateTrick(Trick newTrick) {
+        underlyingPlayer.updateTrick(newTrick);
+    }
+
+    @Override
+    public void updateScore(Score score) {
+        underlyingPlayer.updateScore(score);
+    }
+
+    @Override
+    public void setWinningTeam(TeamId winningTeam) {
+        underlyingPlayer.setWinningTeam(winningTeam);
+    }
+}
@@ -21,7 +21,7 @@ public final class Card {
      * @return an object {@link Card}, representing a {@link Card} with the given {@link Rank} and the given {@link Color}
      */
     public static Card of(Color c, Rank r) {
-        return new Card(PackedCard.pack(c, r));
+        return CACHE[PackedCard.pack(c, r)];
     }
     
     /**
@@ -33,7 +33,17 @@ public final class Card {
     public static Card ofPacked(int packed) {
         checkArgument(PackedCard.isValid(packed)); 
         
-        return new Card(packed);
+        return CACHE[packed];
+    }
+
+    //The canonical instances of the 36 cards, indexed by their packed version.
+    private static final Card[] CACHE = new Card[PackedCard.INVALID + 1];
+    static {
+        for (int c = 0; c < Color.COUNT; c++)
+            for (int r = 0; r < Rank.COUNT; r++) {
+                int pkCard = PackedCard.pack(Color.ALL.get(c), Rank.ALL.get(r));
+                CACHE[pkCard] = new Card(pkCard);
+            }
     }
 
     private final int packed;
@@ -179,10 +189,13 @@ public final class Card {
  
     @Override
     public boolean equals(Object that0) {
+        //Cards are interned, so identity is the common case.
+        if (that0 == this)
+            return true;
+        
         return that0 != null 
                 && that0.getClass() == this.getClass() 
-                && this.color() == ((Card)that0).color() 
-                && this.rank() == ((Card)that0).rank();
+                && this.packed == ((Card)that0).packed();
     }
     
     @Override
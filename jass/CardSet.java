@@ -31,7 +31,7 @@ public final class CardSet {
         for(Card card : cards) {
             packed = PackedCardSet.add(packed, card.packed());
         }
-        return new CardSet(packed);
+        return of(packed);
     }
 
     /**
@@ -41,6 +41,18 @@ public final class CardSet {
      */
     public static CardSet ofPacked(long packed) {
         checkArgument(PackedCardSet.isValid(packed));
+        return of(packed);
+    }
+    
+    /*
+     * Gives the card set of the given valid packed version, reusing EMPTY and ALL_CARDS when possible.
+     */
+    private static CardSet of(long packed) {
+        if (packed == PackedCardSet.EMPTY)
+            return EMPTY;
+        if (packed == PackedCardSet.ALL_CARDS)
+            return ALL_CARDS;
+        
         return new CardSet(packed);
     }
     
@@ -90,7 +102,7 @@ public final class CardSet {
 	 * @return the new {@link CardSet} containing the {@link Card}.
 	 */
 	public CardSet add(Card card) {
-		return new CardSet(PackedCardSet.add(packed, card.packed()));
+		return of(PackedCardSet.add(packed, card.packed()));
 	}
 
 	/**
@@ -99,7 +111,7 @@ public final class CardSet {
 	 * @return the new {@link CardSet} without the given {@link Card}.
 	 */
 	public CardSet remove(Card card) {
-		return new CardSet(PackedCardSet.remove(packed, card.packed()));
+		return of(PackedCardSet.remove(packed, card.packed()));
 	}
 
 	/**
@@ -116,7 +128,7 @@ public final class CardSet {
 	 * @return a new {@link CardSet} containing all the {@link Card} not contained in the {@link CardSet}.
 	 */
 	public CardSet complement() {
-		return new CardSet(PackedCardSet.complement(packed));
+		return of(PackedCardSet.complement(packed));
 	}
 
 	/**
@@ -125,7 +137,7 @@ public final class CardSet {
 	 * @return a new {@link CardSet} which is the union of the prior {@link CardSet} and the given {@link CardSet}.
 	 */
 	public CardSet union(CardSet that) {
-		return new CardSet(PackedCardSet.union(packed, that.packed()));
+		return of(PackedCardSet.union(packed, that.packed()));
 	}
 
 	/**
@@ -134,7 +146,7 @@ public final class CardSet {
 	 * @return a new {@link CardSet} which is the intersection of the prior {@link CardSet} and the given {@link CardSet}.
 	 */
 	public CardSet intersection(CardSet that) {
-		return new CardSet(PackedCardSet.intersection(packed, that.packed()));
+		return of(PackedCardSet.intersection(packed, that.packed()));
 	}
 
 	/**
@@ -143,7 +155,7 @@ public final class CardSet {
 	 * @return a new {@link CardSet} which is the {@link CardSet} minus the given {@link CardSet}.
 	 */
 	public CardSet difference(CardSet that) {
-		return new CardSet(PackedCardSet.difference(packed, that.packed()));
+		return of(PackedCardSet.difference(packed, that.packed()));
 	}
 
 	/**
@@ -152,12 +164,13 @@ public final class CardSet {
 	 * @return a {@link CardSet} containing only the {@link Card}s of a given {@link Color}.
 	 */
 	public CardSet subsetOfColor(Card.Color color) {
-		return new CardSet(PackedCardSet.subsetOfColor(packed, color));
+		return of(PackedCardSet.subsetOfColor(packed, color));
 	}
 
 	@Override
 	public boolean equals(Object that) {
-		return that != null 
+		return that == this
+		        || that != null 
 		        && that.getClass() == this.getClass() 
 		        && this.packed == ((CardSet)that).packed();
 	}
@@ -0,0 +1,336 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The deals of a set of unseen cards to the three other players, seen from one
+ * player. Each deal is ranked to a unique long between 0 and the number of
+ * deals, so that statistics over the deals can be computed exactly by
+ * enumerating all of them, or estimated by sampling random ranks, the work
+ * being split over the common fork-join pool in both cases.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class DealEnumerator {
+
+    /**
+     * A condition on the hands of the three other players.
+     * @author Charles BEAUVILLE
+     * @author Celia HOUSSIAUX
+     *
+     */
+    @FunctionalInterface
+    public interface DealPredicate {
+        /**
+         * Tests a deal, must not allocate any object.
+         * @param pkHand1 the packed version of the hand of the next player.
+         * @param pkHand2 the packed version of the hand of the partner.
+         * @param pkHand3 the packed version of the hand of the previous player.
+         * @return true if the deal satisfies the condition.
+         */
+        boolean test(long pkHand1, long pkHand2, long pkHand3);
+    }
+
+    /**
+     * A value computed from the hands of the three other players.
+     * @author Charles BEAUVILLE
+     * @author Celia HOUSSIAUX
+     *
+     */
+    @FunctionalInterface
+    public interface DealStatistic {
+        /**
+         * Computes the value of a deal, must not allocate any object.
+         * @param pkHand1 the packed version of the hand of the next player.
+         * @param pkHand2 the packed version of the hand of the partner.
+         * @param pkHand3 the packed version of the hand of the previous player.
+         * @return the value of the deal.
+         */
+        double value(long pkHand1, long pkHand2, long pkHand3);
+    }
+
+    private static final int DECK_SIZE = Card.Color.COUNT * Card.Rank.COUNT;
+    //The number of deals a task enumerates or samples without splitting further.
+    private static final long LEAF_DEALS = 1 << 16;
+
+    //BINOMIALS[n][k] is the number of subsets of size k of a set of size n.
+    private static final long[][] BINOMIALS = new long[DECK_SIZE + 1][DECK_SIZE + 1];
+    static {
+        for (int n = 0; n <= DECK_SIZE; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= n; k++)
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+        }
+    }
+
+    private final long pkUnseen;
+    private final int size1;
+    private final int size2;
+    private final long hands1;
+    private final long hands2;
+
+    /**
+     * The deals of the given cards in hands of the given sizes.
+     * @param pkUnseen the packed version of the set of cards to deal.
+     * @param size1 the number of cards of the next player.
+     * @param size2 the number of cards of the partner.
+     * @param size3 the number of cards of the previous player.
+     * @throws IllegalArgumentException if a size is negative or if the sizes do not add up to the number of unseen cards.
+     */
+    public DealEnumerator(long pkUnseen, int size1, int size2, int size3) {
+        checkArgument(PackedCardSet.isValid(pkUnseen));
+        checkArgument(size1 >= 0 && size2 >= 0 && size3 >= 0 && size1 + size2 + size3 == PackedCardSet.size(pkUnseen));
+
+        this.pkUnseen = pkUnseen;
+        this.size1 = size1;
+        this.size2 = size2;
+        this.hands1 = BINOMIALS[size1 + size2 + size3][size1];
+        this.hands2 = BINOMIALS[size2 + size3][size2];
+    }
+
+    /**
+     * The deals of the cards a player has not seen yet, to the three other players.
+     * @param player the player.
+     * @param pkHand the packed version of the hand of the player.
+     * @param pkUnplayed the packed version of the set of unplayed cards.
+     * @param pkTrick the packed version of the current trick.
+     * @throws IllegalArgumentException if the hand, the unplayed cards and the trick do not match.
+     * @return the deals of the unplayed cards the player does not hold.
+     */
+    public static DealEnumerator of(PlayerId player, long pkHand, long pkUnplayed, int pkTrick) {
+        checkArgument(PackedCardSet.intersection(pkHand, pkUnplayed) == pkHand);
+
+        int[] sizes = new int[PlayerId.COUNT];
+        for (int i = 1; i < PlayerId.COUNT; i++) {
+            PlayerId p = PlayerId.ALL.get((player.ordinal() + i) % PlayerId.COUNT);
+            int position = (p.ordinal() - PackedTrick.player(pkTrick, 0).ordinal() + PlayerId.COUNT) % PlayerId.COUNT;
+            sizes[i] = Jass.HAND_SIZE - PackedTrick.index(pkTrick) - (position < PackedTrick.size(pkTrick) ? 1 : 0);
+        }
+        return new DealEnumerator(PackedCardSet.difference(pkUnplayed, pkHand), sizes[1], sizes[2], sizes[3]);
+    }
+
+    /**
+     * Gives the number of deals.
+     * @return the number of deals.
+     */
+    public long count() {
+        return hands1 * hands2;
+    }
+
+    /**
+     * Gives the rank of a deal.
+     * @param pkHand1 the packed version of the hand of the next player.
+     * @param pkHand2 the packed version of the hand of the partner.
+     * @throws IllegalArgumentException if the hands are not a deal of the unseen cards.
+     * @return the rank of the deal, between 0 (included) and {@link #count()} (excluded).
+     */
+    public long rank(long pkHand1, long pkHand2) {
+        checkArgument(PackedCardSet.intersection(pkHand1, pkHand2) == PackedCardSet.EMPTY
+                && PackedCardSet.difference(PackedCardSet.union(pkHand1, pkHand2), pkUnseen) == PackedCardSet.EMPTY
+                && PackedCardSet.size(pkHand1) == size1 && PackedCardSet.size(pkHand2) == size2);
+
+        return subsetRank(pkUnseen, pkHand1) * hands2 + subsetRank(PackedCardSet.difference(pkUnseen, pkHand1), pkHand2);
+    }
+
+    /**
+     * Gives the deal of a rank.
+     * @param rank the rank of the deal.
+     * @param pkHands the array receiving the packed versions of the hands of the next player,
+     * the partner and the previous player.
+     * @throws IllegalArgumentException if the rank is not the one of a deal or if pkHands is too short.
+     */
+    public void unrank(long rank, long[] pkHands) {
+        checkArgument(rank >= 0 && rank < count() && pkHands.length >= PlayerId.COUNT - 1);
+
+        pkHands[0] = subsetUnrank(pkUnseen, size1, rank / hands2);
+        long rest = PackedCardSet.difference(pkUnseen, pkHands[0]);
+        pkHands[1] = subsetUnrank(rest, size2, rank % hands2);
+        pkHands[2] = PackedCardSet.difference(rest, pkHands[1]);
+    }
+
+    /**
+     * Counts exactly the deals satisfying a condition, by enumerating all of them.
+     * @param predicate the condition, called concurrently.
+     * @return the number of deals satisfying it.
+     */
+    public long count(DealPredicate predicate) {
+        return (long) sum((h1, h2, h3) -> predicate.test(h1, h2, h3) ? 1 : 0);
+    }
+
+    /**
+     * Computes exactly the probability of a condition, by enumerating all the deals.
+     * @param predicate the condition, called concurrently.
+     * @return the proportion of deals satisfying it.
+     */
+    public double probability(DealPredicate predicate) {
+        return (double) count(predicate) / count();
+    }
+
+    /**
+     * Computes exactly the mean of a statistic over all the deals, by enumerating them.
+     * @param statistic the statistic, called concurrently.
+     * @return the mean of the statistic.
+     */
+    public double mean(DealStatistic statistic) {
+        return sum(statistic) / count();
+    }
+
+    /**
+     * Estimates the mean of a statistic over the deals, from deals drawn uniformly at random.
+     * The estimate only depends on the seed, not on the scheduling of the tasks.
+     * @param statistic the statistic, called concurrently.
+     * @param samples the number of deals drawn.
+     * @param seed the seed of the drawing.
+     * @throws IllegalArgumentException if samples is not strictly positive.
+     * @return the mean of the statistic over the drawn deals.
+     */
+    public double sampleMean(DealStatistic statistic, long samples, long seed) {
+        checkArgument(samples > 0);
+
+        return ForkJoinPool.commonPool().invoke(new SamplingTask(statistic, samples, new SplittableRandom(seed))) / samples;
+    }
+
+    /**
+     * Estimates the probability of a condition, from deals drawn uniformly at random.
+     * @param predicate the condition, called concurrently.
+     * @param samples the number of deals drawn.
+     * @param seed the seed of the drawing.
+     * @throws IllegalArgumentException if samples is not strictly positive.
+     * @return the proportion of the drawn deals satisfying the condition.
+     */
+    public double sampleProbability(DealPredicate predicate, long samples, long seed) {
+        return sampleMean((h1, h2, h3) -> predicate.test(h1, h2, h3) ? 1 : 0, samples, seed);
+    }
+
+    /*
+     * Sums a statistic over all the deals.
+     */
+    private double sum(DealStatistic statistic) {
+        return ForkJoinPool.commonPool().invoke(new EnumerationTask(statistic, 0, hands1));
+    }
+
+    /*
+     * Gives the rank of a subset of a set in the colexicographic order of the subsets of its size.
+     */
+    private static long subsetRank(long pkSet, long pkSubset) {
+        long rank = 0;
+        int i = 1;
+        for (long s = pkSubset; s != PackedCardSet.EMPTY; s &= s - 1, i++) {
+            int index = Long.bitCount(pkSet & (Long.lowestOneBit(s) - 1));
+            rank += BINOMIALS[index][i];
+        }
+        return rank;
+    }
+
+    /*
+     * Gives the subset of the given size of a set with the given colexicographic rank.
+     */
+    private static long subsetUnrank(long pkSet, int size, long rank) {
+        long subset = PackedCardSet.EMPTY;
+        int index = PackedCardSet.size(pkSet);
+        for (int i = size; i > 0; i--) {
+            do
+                index--;
+            while (BINOMIALS[index][i] > rank);
+            rank -= BINOMIALS[index][i];
+            subset |= PackedCardSet.singleton(PackedCardSet.get(pkSet, index));
+        }
+        return subset;
+    }
+
+    /*
+     * Sums a statistic over the deals whose first hand has a rank in [from, to).
+     */
+    private final class EnumerationTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final DealStatistic statistic;
+        private final long from;
+        private final long to;
+
+        private EnumerationTask(DealStatistic statistic, long from, long to) {
+            this.statistic = statistic;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from > 1 && (to - from) * hands2 > LEAF_DEALS) {
+                long middle = (from + to) >>> 1;
+                EnumerationTask left = new EnumerationTask(statistic, from, middle);
+                left.fork();
+                double right = new EnumerationTask(statistic, middle, to).compute();
+                return left.join() + right;
+            }
+
+            int restSize = PackedCardSet.size(pkUnseen) - size1;
+            int[] rest = new int[restSize];
+            double sum = 0;
+            for (long r = from; r < to; r++) {
+                long hand1 = subsetUnrank(pkUnseen, size1, r);
+                long others = PackedCardSet.difference(pkUnseen, hand1);
+                int i = 0;
+                for (long s = others; s != PackedCardSet.EMPTY; s &= s - 1)
+                    rest[i++] = Long.numberOfTrailingZeros(s);
+
+                //Walks the subsets of size2 of the indices of the remaining cards with Gosper's hack.
+                long end = 1L << restSize;
+                long m = (1L << size2) - 1;
+                while (m < end) {
+                    long hand2 = PackedCardSet.EMPTY;
+                    for (long b = m; b != 0; b &= b - 1)
+                        hand2 |= 1L << rest[Long.numberOfTrailingZeros(b)];
+                    sum += statistic.value(hand1, hand2, others ^ hand2);
+
+                    if (m == 0)
+                        break;
+                    long t = m | (m - 1);
+                    m = (t + 1) | (((~t & -~t) - 1) >>> (Long.numberOfTrailingZeros(m) + 1));
+                }
+            }
+            return sum;
+        }
+    }
+
+    /*
+     * Sums a statistic over a number of deals drawn at random.
+     */
+    private final class SamplingTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final DealStatistic statistic;
+        private final long samples;
+        private final SplittableRandom rng;
+
+        private SamplingTask(DealStatistic statistic, long samples, SplittableRandom rng) {
+            this.statistic = statistic;
+            this.samples = samples;
+            this.rng = rng;
+        }
+
+        @Override
+        protected Double compute() {
+            if (samples > LEAF_DEALS) {
+                //Splits before forking so that the generators do not depend on the scheduling.
+                SamplingTask left = new SamplingTask(statistic, samples / 2, rng.split());
+                left.fork();
+                double right = new SamplingTask(statistic, samples - samples / 2, rng).compute();
+                return left.join() + right;
+            }
+
+            long[] hands = new long[PlayerId.COUNT - 1];
+            double sum = 0;
+            for (long i = 0; i < samples; i++) {
+                unrank(rng.nextLong(count()), hands);
+                sum += statistic.value(hands[0], hands[1], hands[2]);
+            }
+            return sum;
+        }
+    }
+}
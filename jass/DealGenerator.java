@@ -0,0 +1,78 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import java.util.SplittableRandom;
+
+import javass.jass.Card.Color;
+import javass.jass.Card.Rank;
+
+/**
+ * A generator of random deals, shuffling the packed versions of the cards of
+ * the deck in place and giving the hands as packed sets of cards. The deals
+ * only depend on the seed of the generator and on the sequence of calls.
+ * A generator must not be used by several threads at once.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class DealGenerator {
+    
+    private static final int DECK_SIZE = Color.COUNT * Rank.COUNT;
+    
+    private final SplittableRandom rng;
+    private final byte[] deck = new byte[DECK_SIZE];
+    
+    /**
+     * A generator of random deals.
+     * @param rngSeed the seed of the generator.
+     */
+    public DealGenerator(long rngSeed) {
+        this.rng = new SplittableRandom(rngSeed);
+        int i = 0;
+        for (Color c : Color.ALL)
+            for (Rank r : Rank.ALL)
+                deck[i++] = (byte) PackedCard.pack(c, r);
+    }
+    
+    /**
+     * Deals the whole deck to the players.
+     * @param pkHands the array receiving the packed versions of the hands, indexed by the ordinals of the {@link PlayerId}s.
+     * @throws IllegalArgumentException if pkHands is too short.
+     */
+    public void deal(long[] pkHands) {
+        checkArgument(pkHands.length >= PlayerId.COUNT);
+        
+        shuffle(DECK_SIZE - 1);
+        for (int p = 0; p < PlayerId.COUNT; p++) {
+            long hand = PackedCardSet.EMPTY;
+            for (int i = p * Jass.HAND_SIZE; i < (p + 1) * Jass.HAND_SIZE; i++)
+                hand |= 1L << deck[i];
+            pkHands[p] = hand;
+        }
+    }
+    
+    /**
+     * Deals one hand, drawn uniformly among the hands of the deck.
+     * @return the packed version of the hand.
+     */
+    public long hand() {
+        shuffle(Jass.HAND_SIZE);
+        long hand = PackedCardSet.EMPTY;
+        for (int i = 0; i < Jass.HAND_SIZE; i++)
+            hand |= 1L << deck[i];
+        return hand;
+    }
+    
+    /*
+     * Places the given number of random cards at the beginning of the deck (Fisher-Yates).
+     */
+    private void shuffle(int count) {
+        for (int i = 0; i < count; i++) {
+            int j = i + rng.nextInt(DECK_SIZE - i);
+            byte card = deck[i];
+            deck[i] = deck[j];
+            deck[j] = card;
+        }
+    }
+}
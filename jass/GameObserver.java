@@ -0,0 +1,59 @@
+package javass.jass;
+
+import java.util.Map;
+
+import javass.jass.Card.Color;
+
+/**
+ * An observer of a {@link JassGame}, seeing everything the players are told
+ * as packed values, including the hands of all the players. An observer is
+ * called on the thread advancing the game and must not block it.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public interface GameObserver {
+    
+    /**
+     * Tells the names of the players, at the beginning of the game.
+     * @param playerNames a map that associates the PlayerId with the names of the players.
+     */
+    default void setPlayers(Map<PlayerId, String> playerNames) {
+    }
+    
+    /**
+     * Updates the hand of a player.
+     * @param player the player.
+     * @param pkHand the packed version of the new hand of the player.
+     */
+    default void updateHand(PlayerId player, long pkHand) {
+    }
+    
+    /**
+     * Tells the trump of a new turn.
+     * @param trump the trump color of the turn.
+     */
+    default void setTrump(Color trump) {
+    }
+    
+    /**
+     * Updates the current trick.
+     * @param pkTrick the packed version of the new trick.
+     */
+    default void updateTrick(int pkTrick) {
+    }
+    
+    /**
+     * Updates the score.
+     * @param pkScore the packed version of the new score.
+     */
+    default void updateScore(long pkScore) {
+    }
+    
+    /**
+     * Tells the team that won the game.
+     * @param winningTeam the team that won the game.
+     */
+    default void setWinningTeam(TeamId winningTeam) {
+    }
+}
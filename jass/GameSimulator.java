@@ -0,0 +1,184 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javass.jass.Card.Color;
+import javass.jass.Card.Rank;
+
+/**
+ * Plays whole games of Jass on packed states, each seat choosing its cards
+ * with a {@link PlayoutPolicy}. A game of a given seed is dealt, trumped and
+ * scored exactly like a {@link JassGame} of the same seed, without any
+ * {@link Player} nor any object per card. A simulator counts the games, turns
+ * and wins it plays and must not be used by several threads at once.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class GameSimulator {
+
+    private static final long DEFAULT_GAMES = 100000;
+    private static final int PK_SEVEN_OF_DIAMONDS = PackedCard.pack(Color.DIAMOND, Rank.SEVEN);
+
+    private final PlayoutPolicy[] policies;
+    private final long[] pkHands = new long[PlayerId.COUNT];
+    private long games = 0;
+    private long turns = 0;
+    private final long[] wins = new long[TeamId.COUNT];
+
+    /**
+     * A simulator whose seats play with the given policies.
+     * @param policies the policies of the seats, indexed by the ordinals of the {@link PlayerId}s.
+     * @throws IllegalArgumentException if there is not exactly one policy per player.
+     */
+    public GameSimulator(PlayoutPolicy... policies) {
+        checkArgument(policies.length == PlayerId.COUNT);
+
+        this.policies = policies.clone();
+    }
+
+    /**
+     * Simulates games in parallel, each thread playing its share of the games
+     * with its own simulator and its own stream of random numbers.
+     * @param policies the policies of the seats, indexed by the ordinals of the {@link PlayerId}s.
+     * @param games the number of games.
+     * @param threads the number of threads.
+     * @param seed the seed of the streams of the threads.
+     * @throws IllegalArgumentException if there is not exactly one policy per player or if threads is not strictly positive.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the games.
+     * @return a simulator counting all the games played.
+     */
+    public static GameSimulator simulate(PlayoutPolicy[] policies, long games, int threads, long seed) throws InterruptedException {
+        checkArgument(threads > 0);
+
+        SplittableRandom rng = new SplittableRandom(seed);
+        GameSimulator[] simulators = new GameSimulator[threads];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            GameSimulator simulator = new GameSimulator(policies);
+            SplittableRandom threadRng = rng.split();
+            long threadGames = games / threads + (t < games % threads ? 1 : 0);
+            simulators[t] = simulator;
+            executor.execute(() -> {
+                for (long i = 0; i < threadGames; i++)
+                    simulator.play(threadRng.nextLong(), threadRng);
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        GameSimulator total = new GameSimulator(policies);
+        for (GameSimulator s : simulators) {
+            total.games += s.games;
+            total.turns += s.turns;
+            for (int i = 0; i < TeamId.COUNT; i++)
+                total.wins[i] += s.wins[i];
+        }
+        return total;
+    }
+
+    /**
+     * Simulates games between the heuristic and the random policies and prints their results.
+     * @param args [{games} [{threads} [{seed}]]]
+     * @throws InterruptedException if the main thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_GAMES;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        PlayoutPolicy[] policies = new PlayoutPolicy[PlayerId.COUNT];
+        for (PlayerId p : PlayerId.ALL)
+            policies[p.ordinal()] = p.team() == TeamId.TEAM_1 ? PlayoutPolicy.HEURISTIC : PlayoutPolicy.RANDOM;
+
+        long start = System.nanoTime();
+        GameSimulator s = simulate(policies, games, threads, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games, %d turns in %.2f s (%.0f turns/s)%n", s.games(), s.turns(), seconds, s.turns() / seconds);
+        System.out.printf("heuristic team won %.4f of the games%n", (double) s.wins(TeamId.TEAM_1) / s.games());
+    }
+
+    /**
+     * Plays a whole game, until a team reaches the winning points.
+     * @param gameSeed the seed of the game, dealing and choosing the trumps like the one of a {@link JassGame}.
+     * @param rng the generator used by the policies.
+     * @return the packed version of the score when the game is won.
+     */
+    public long play(long gameSeed, SplittableRandom rng) {
+        //Derives the generators of the deals and of the trumps like JassGame.
+        Random seeds = new Random(gameSeed);
+        DealGenerator deals = new DealGenerator(seeds.nextLong());
+        Random trumpRng = new Random(seeds.nextLong());
+
+        long pkScore = PackedScore.INITIAL;
+        PlayerId firstPlayer = null;
+        while (true) {
+            Color trump = Color.ALL.get(trumpRng.nextInt(Color.COUNT));
+            deals.deal(pkHands);
+            turns++;
+
+            if (firstPlayer == null) {
+                //The first player of the game holds the seven of diamonds.
+                for (PlayerId p : PlayerId.ALL)
+                    if (PackedCardSet.contains(pkHands[p.ordinal()], PK_SEVEN_OF_DIAMONDS))
+                        firstPlayer = p;
+            } else {
+                firstPlayer = PlayerId.ALL.get((firstPlayer.ordinal() + 1) % PlayerId.COUNT);
+                pkScore = PackedScore.nextTurn(pkScore);
+            }
+
+            int pkTrick = PackedTrick.firstEmpty(trump, firstPlayer);
+            while (pkTrick != PackedTrick.INVALID) {
+                for (int i = 0; i < PlayerId.COUNT; i++) {
+                    int p = PackedTrick.player(pkTrick, i).ordinal();
+                    long playable = PackedTrick.playableCards(pkTrick, pkHands[p]);
+                    int pkCard = policies[p].cardToPlay(pkTrick, playable, rng);
+                    pkHands[p] = PackedCardSet.remove(pkHands[p], pkCard);
+                    pkTrick = PackedTrick.withAddedCard(pkTrick, pkCard);
+                }
+
+                //Like JassGame, checks the winner once the trick is played but before collecting it.
+                for (TeamId t : TeamId.ALL)
+                    if (PackedScore.totalPoints(pkScore, t) >= Jass.WINNING_POINTS) {
+                        games++;
+                        wins[t.ordinal()]++;
+                        return pkScore;
+                    }
+                pkScore = PackedScore.withAdditionalTrick(pkScore, PackedTrick.winningPlayer(pkTrick).team(), PackedTrick.points(pkTrick));
+                pkTrick = PackedTrick.nextEmpty(pkTrick);
+            }
+        }
+    }
+
+    /**
+     * Gives the number of games played.
+     * @return the number of games played.
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * Gives the number of turns started.
+     * @return the number of turns started, the last turn of each game being unfinished.
+     */
+    public long turns() {
+        return turns;
+    }
+
+    /**
+     * Gives the number of games won by a team.
+     * @param team the team.
+     * @return the number of games won by the team.
+     */
+    public long wins(TeamId team) {
+        return wins[team.ordinal()];
+    }
+}
@@ -0,0 +1,118 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import java.util.SplittableRandom;
+
+import javass.jass.Card.Color;
+import javass.jass.Card.Rank;
+
+/**
+ * A {@link PlayoutPolicy} following simple rules of thumb: it dumps points to
+ * its partner when the partner is winning the trick, otherwise it takes the
+ * trick with its lowest winning card or discards its least valuable card, and
+ * it keeps the jack and the nine of trump as long as it can.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class HeuristicPlayoutPolicy implements PlayoutPolicy {
+    
+    /**
+     * The default probability of playing a random card instead of the heuristic one.
+     */
+    public static final double DEFAULT_RANDOMNESS = 0.1;
+    
+    //The jack and the nine of trump, for each trump.
+    private static final long[] KEPT_TRUMPS = new long[Color.COUNT];
+    static {
+        for (Color trump : Color.ALL)
+            KEPT_TRUMPS[trump.ordinal()] = PackedCardSet.union(
+                    PackedCardSet.singleton(PackedCard.pack(trump, Rank.JACK)),
+                    PackedCardSet.singleton(PackedCard.pack(trump, Rank.NINE)));
+    }
+    
+    private final double randomness;
+    
+    /**
+     * A {@link PlayoutPolicy} following simple rules of thumb.
+     * @param randomness the probability of playing a random card instead of the heuristic one,
+     * keeping some diversity in the playouts.
+     * @throws IllegalArgumentException if randomness is not between 0 and 1.
+     */
+    public HeuristicPlayoutPolicy(double randomness) {
+        checkArgument(randomness >= 0 && randomness <= 1);
+        
+        this.randomness = randomness;
+    }
+
+    @Override
+    public int cardToPlay(int pkTrick, long pkPlayableCards, SplittableRandom rng) {
+        if (randomness > 0 && rng.nextDouble() < randomness)
+            return RANDOM.cardToPlay(pkTrick, pkPlayableCards, rng);
+        
+        Color trump = PackedTrick.trump(pkTrick);
+        long kept = PackedCardSet.intersection(pkPlayableCards, KEPT_TRUMPS[trump.ordinal()]);
+        long others = PackedCardSet.difference(pkPlayableCards, kept);
+        //Keeps the jack and the nine of trump unless there is no other choice.
+        long candidates = PackedCardSet.isEmpty(others) ? pkPlayableCards : others;
+        
+        if (PackedTrick.isEmpty(pkTrick))
+            return strongest(trump, candidates);
+        
+        int size = PackedTrick.size(pkTrick);
+        int winningCard = PackedTrick.card(pkTrick, 0);
+        for (int i = 1; i < size; i++)
+            if (PackedCard.isBetter(trump, PackedTrick.card(pkTrick, i), winningCard))
+                winningCard = PackedTrick.card(pkTrick, i);
+        
+        if (PackedTrick.winningPlayer(pkTrick).team() == PackedTrick.player(pkTrick, size).team())
+            return mostPoints(trump, candidates);
+        
+        //Takes the trick as cheaply as possible, including with a kept trump.
+        int lowestWinning = PackedCard.INVALID;
+        for (long set = pkPlayableCards; set != PackedCardSet.EMPTY; set &= set - 1) {
+            int pkCard = Long.numberOfTrailingZeros(set);
+            if (PackedCard.isBetter(trump, pkCard, winningCard) 
+                    && (lowestWinning == PackedCard.INVALID 
+                    || PackedCard.strength(trump, pkCard) < PackedCard.strength(trump, lowestWinning)))
+                lowestWinning = pkCard;
+        }
+        
+        return lowestWinning != PackedCard.INVALID ? lowestWinning : fewestPoints(trump, candidates);
+    }
+    
+    private static int strongest(Color trump, long pkCardSet) {
+        int best = Long.numberOfTrailingZeros(pkCardSet);
+        for (long set = pkCardSet & (pkCardSet - 1); set != PackedCardSet.EMPTY; set &= set - 1) {
+            int pkCard = Long.numberOfTrailingZeros(set);
+            if (PackedCard.strength(trump, pkCard) > PackedCard.strength(trump, best))
+                best = pkCard;
+        }
+        return best;
+    }
+    
+    private static int mostPoints(Color trump, long pkCardSet) {
+        int best = Long.numberOfTrailingZeros(pkCardSet);
+        for (long set = pkCardSet & (pkCardSet - 1); set != PackedCardSet.EMPTY; set &= set - 1) {
+            int pkCard = Long.numberOfTrailingZeros(set);
+            if (PackedCard.points(trump, pkCard) > PackedCard.points(trump, best))
+                best = pkCard;
+        }
+        return best;
+    }
+    
+    private static int fewestPoints(Color trump, long pkCardSet) {
+        int best = Long.numberOfTrailingZeros(pkCardSet);
+        for (long set = pkCardSet & (pkCardSet - 1); set != PackedCardSet.EMPTY; set &= set - 1) {
+            int pkCard = Long.numberOfTrailingZeros(set);
+            int points = PackedCard.points(trump, pkCard);
+            int bestPoints = PackedCard.points(trump, best);
+            //Between equally worthless cards, throws the weakest one.
+            if (points < bestPoints || points == bestPoints 
+                    && PackedCard.strength(trump, pkCard) < PackedCard.strength(trump, best))
+                best = pkCard;
+        }
+        return best;
+    }
+}
@@ -1,15 +1,22 @@
 package javass.jass;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import javass.jass.Card.Color;
 import javass.jass.Card.Rank;
+import javass.metrics.GameMetrics;
+import javass.record.GameLogWriter;
+import javass.record.GameRecorder;
 
 /**
  * The representation of a game of Jass.
@@ -19,21 +26,24 @@ import javass.jass.Card.Rank;
  */
 public final class JassGame {
 
-    private static final Card SEVEN_OF_DIAMONDS = Card.of(Color.DIAMOND, Rank.SEVEN);
+    private static final int PK_SEVEN_OF_DIAMONDS = PackedCard.pack(Color.DIAMOND, Rank.SEVEN);
     
 	private final Map<PlayerId, Player> players;
 	private final Map<PlayerId, String> playerNames;
-	private final Random shuffleRng;
+	private final DealGenerator deals;
 	private final Random trumpRng;
+	private final GameLogWriter log;
+	private final GameRecorder recorder;
 
-	private final Map<Player, CardSet> hands = new HashMap<>();
-	private final List<Card> deck = new ArrayList<>();
+	private final long[] pkHands = new long[PlayerId.COUNT];
+	private final PackedGame game = new PackedGame();
 	private PlayerId firstPlayerId;
 	private Color trump;
-
-	private TurnState currentTurnState;
+	private boolean isStarted = false;
 
 	private boolean isGameOver = false;
+	private GameMetrics metrics;
+	private final List<GameObserver> observers = new CopyOnWriteArrayList<>();
 
 	/**
 	 * The representation of a game of Jass.
@@ -43,13 +53,51 @@ public final class JassGame {
 	 */
 	public JassGame(long rngSeed, Map<PlayerId, Player> players,
 			Map<PlayerId, String> playerNames) {
+		this(rngSeed, players, playerNames, null);
+	}
+
+	/**
+	 * The representation of a game of Jass, recorded to a log once it is over.
+	 * @param rngSeed the seed for the random number generator (for the shuffle and the trump).
+	 * @param players a map between the {@link PlayerId}s and the {@link Player}s of the game. 
+	 * @param playerNames a map between the {@link Players}s of the game and their names. 
+	 * @param log the log the game is appended to when it is over, or null to not record it.
+	 */
+	public JassGame(long rngSeed, Map<PlayerId, Player> players,
+			Map<PlayerId, String> playerNames, GameLogWriter log) {
 		this.players = Collections.unmodifiableMap(new EnumMap<>(players));
 		this.playerNames = Collections
 				.unmodifiableMap(new EnumMap<>(playerNames));
 
 		Random rng = new Random(rngSeed);
-		this.shuffleRng = new Random(rng.nextLong());
+		this.deals = new DealGenerator(rng.nextLong());
 		this.trumpRng = new Random(rng.nextLong());
+		this.log = log;
+		this.recorder = log == null ? null : new GameRecorder(rngSeed);
+	}
+
+	/**
+	 * Sets the metrics recording the game, measured only while they are set.
+	 * @param metrics the metrics recording the rest of the game, or null to stop recording it.
+	 */
+	public void setMetrics(GameMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Adds an observer of the rest of the game, told the same events as the players.
+	 * @param observer the observer, called on the thread advancing the game.
+	 */
+	public void addObserver(GameObserver observer) {
+		observers.add(observer);
+	}
+
+	/**
+	 * Removes an observer of the game.
+	 * @param observer the observer to remove.
+	 */
+	public void removeObserver(GameObserver observer) {
+		observers.remove(observer);
 	}
 
 	/**
@@ -64,66 +112,99 @@ public final class JassGame {
 	 * A method that plays the game until the end of the current {@link Trick}.
 	 */
 	public void advanceToEndOfNextTrick() {
-	    if(!isGameOver) {
-    	    //Creates the first turn state if it does not exist yet.
-    		if (currentTurnState == null)
-    			newTurn(true);
-    
-    		//Collects the trick when it is full.
-    		if (currentTurnState.trick().isFull())
-    			currentTurnState = currentTurnState.withTrickCollected();
-    
-    		//Creates the next turn if all the tricks of the current turn have been played.
-    		if (currentTurnState.isTerminal())
-    			newTurn(false);
-    
-    		//Calls the methods to update the score for all players.
-    		updateScoreForAll();
-            //Calls the methods to update the trick for all players.
-    		updateTrickForAll();
-    
-    		//While the trick isn't full ask each player which card they play and update the trick.
-    		while (!currentTurnState.trick().isFull())
-    			updatePlayers();
-    
-    		checkIfTeamWon();
-	    }
+		try {
+			advanceToEndOfNextTrickAsync(Runnable::run).join();
+		} catch (CompletionException e) {
+			//Rethrows what the players or the log threw, as if they had been called directly.
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Plays the game until the end of the current {@link Trick} without waiting for the players:
+	 * the cards of the {@link AsyncPlayer}s are awaited through their futures, those of the other
+	 * players are asked directly. The game must not be advanced again before the returned future is completed.
+	 * @param executor the executor continuing the game once the card of an {@link AsyncPlayer} is known,
+	 * the game continuing directly on the calling thread as long as the cards are known immediately.
+	 * @return a future completed at the end of the trick, or completed exceptionally with what a player threw.
+	 */
+	public CompletableFuture<Void> advanceToEndOfNextTrickAsync(Executor executor) {
+		try {
+			return advance(executor);
+		} catch (RuntimeException e) {
+			//The players called before the first asynchronous card, and the log, fail through the future too.
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	private CompletableFuture<Void> advance(Executor executor) {
+	    if(isGameOver)
+	        return CompletableFuture.completedFuture(null);
+	    
+	    //Creates the first turn state if it does not exist yet.
+		if (!isStarted)
+			newTurn(true);
+
+		//Collects the trick when it is full.
+		if (game.isTrickFull()) {
+			game.collectTrick();
+			if (metrics != null)
+				metrics.trickCollected();
+		}
+
+		//Creates the next turn if all the tricks of the current turn have been played.
+		if (game.isTurnOver())
+			newTurn(false);
+
+		//Calls the methods to update the score for all players.
+		updateScoreForAll();
+        //Calls the methods to update the trick for all players.
+		updateTrickForAll();
+
+		//Asks each player which card they play and updates the trick until it is full.
+		return playCards(executor).thenRun(this::checkIfTeamWon);
 	}
 
 	private void newTurn(boolean isFirst) {
 		trump = Color.ALL.get(trumpRng.nextInt(Color.COUNT));
-		initializeAndShuffleDeck();
+		if (metrics != null)
+			metrics.turnStarted();
+		deals.deal(pkHands);
 		initializePlayers(isFirst);
 		
+		long pkScore = PackedScore.INITIAL;
 		if (!isFirst) {
 			setNewFirstPlayer();
-			currentTurnState = TurnState.initial(trump,
-					currentTurnState.score().nextTurn(), firstPlayerId);
-		} else
-			currentTurnState = TurnState.initial(trump, Score.INITIAL,
-					firstPlayerId);
+			pkScore = PackedScore.nextTurn(game.packedScore());
+		}
+		game.startTurn(pkScore, trump, firstPlayerId, pkHands);
+		isStarted = true;
+		
+		if (recorder != null)
+			recorder.startTurn(trump, firstPlayerId, pkHands);
 	}
 
 	private void checkIfTeamWon() {
 	    for (int i = 0; i < TeamId.COUNT; i++) {
-	        if (currentTurnState
-	                .score()
-	                .totalPoints(TeamId.ALL.get(i)) >= Jass.WINNING_POINTS)
+	        if (PackedScore.totalPoints(game.packedScore(),
+	                TeamId.ALL.get(i)) >= Jass.WINNING_POINTS)
 	            updateWinningTeam(TeamId.ALL.get(i));
         }
 	}
 
-	private void initializeAndShuffleDeck() {
-		deck.clear();
-
-		for (Color color : Color.ALL)
-		    for (Rank rank : Rank.ALL) 
-                deck.add(Card.of(color, rank));
-		
-		Collections.shuffle(deck, shuffleRng);
-	}
-
 	private void initializePlayers(boolean first) {
+		for (GameObserver o : observers) {
+			if (first)
+				o.setPlayers(playerNames);
+			for (PlayerId pId : PlayerId.ALL)
+				o.updateHand(pId, pkHands[pId.ordinal()]);
+			o.setTrump(trump);
+		}
+
 		for (Map.Entry<PlayerId, Player> entry : players.entrySet()) {
 			Player p = entry.getValue();
 			PlayerId iD = entry.getKey();
@@ -132,45 +213,72 @@ public final class JassGame {
 				p.setPlayers(entry.getKey(), playerNames);
 
 			//Distributes the cards among players.
-			hands.put(p, CardSet.of(deck.subList(iD.ordinal() * Jass.HAND_SIZE,
-					(iD.ordinal() + 1) * Jass.HAND_SIZE)));
-			p.updateHand(hands.get(p));
+			p.updateHand(CardSet.ofPacked(pkHands[iD.ordinal()]));
 			
 			p.setTrump(trump);
 
 			//Compute which player is the first player i.e has the jack of diamonds.
-			if (first && hands.get(p)
-					.contains(SEVEN_OF_DIAMONDS))
+			if (first && PackedCardSet.contains(pkHands[iD.ordinal()],
+					PK_SEVEN_OF_DIAMONDS))
 				firstPlayerId = iD;
 		}
 	}
 
-	private void updatePlayers() {
-		PlayerId pid = currentTurnState.nextPlayer();
-		Player p = players.get(pid);
+	private CompletableFuture<Void> playCards(Executor executor) {
+		while (!game.isTrickFull()) {
+			PlayerId pid = game.nextPlayer();
+			Player p = players.get(pid);
+			//Creates the objects the player sees only when asking for its card.
+			TurnState state = game.turnState();
+			CardSet hand = CardSet.ofPacked(game.hand(pid));
 
-		//Asks the player which card he wants to play.
-		Card c = p.cardToPlay(currentTurnState, hands.get(p));
+			//Asks the player which card he wants to play.
+			long start = metrics == null ? 0 : System.nanoTime();
+			CompletableFuture<Card> card = p instanceof AsyncPlayer
+					? ((AsyncPlayer) p).cardToPlayAsync(state, hand)
+					: CompletableFuture.completedFuture(p.cardToPlay(state, hand));
 
-		//Updates the turn with the card played
-		currentTurnState = currentTurnState.withNewCardPlayed(c);
+			//Waits for the card without blocking, then plays the rest of the trick.
+			if (!card.isDone() || card.isCompletedExceptionally())
+				return card.thenComposeAsync(c -> {
+					updatePlayers(pid, p, c, start);
+					return playCards(executor);
+				}, executor);
+			updatePlayers(pid, p, card.join(), start);
+		}
+		return CompletableFuture.completedFuture(null);
+	}
+
+	private void updatePlayers(PlayerId pid, Player p, Card c, long start) {
+		if (metrics != null)
+			metrics.cardPlayed(pid, PackedTrick.index(game.packedTrick()), System.nanoTime() - start);
 
-		//Updates the hand of the player with the card played.
-		hands.put(p, hands.get(p).remove(c));
-		p.updateHand(hands.get(p));
+		//Updates the turn and the hand of the player with the card played.
+		game.playCard(c.packed());
+		if (recorder != null)
+			recorder.cardPlayed(c.packed());
+		p.updateHand(CardSet.ofPacked(game.hand(pid)));
+		for (GameObserver o : observers)
+			o.updateHand(pid, game.hand(pid));
 
 		//Calls the methods to update the trick for all players.
 		updateTrickForAll();
 	}
 
 	private void updateTrickForAll() {
+		Trick trick = Trick.ofPacked(game.packedTrick());
 		for (Player p : players.values())
-			p.updateTrick(currentTurnState.trick());
+			p.updateTrick(trick);
+		for (GameObserver o : observers)
+			o.updateTrick(game.packedTrick());
 	}
 
 	private void updateScoreForAll() {
+		Score score = Score.ofPacked(game.packedScore());
 		for (Player p : players.values())
-			p.updateScore(currentTurnState.score());
+			p.updateScore(score);
+		for (GameObserver o : observers)
+			o.updateScore(game.packedScore());
 	}
 
 	private void setNewFirstPlayer() {
@@ -180,9 +288,25 @@ public final class JassGame {
 
 	private void updateWinningTeam(TeamId team) {
         isGameOver = true;
+        if (metrics != null)
+            metrics.gameOver();
+        if (recorder != null && !recorder.hasEnded()) {
+            recorder.endGame(game.packedScore());
+            try {
+                log.append(recorder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+		Score score = Score.ofPacked(game.packedScore());
 		for (Player p : players.values()) {
-			p.updateScore(currentTurnState.score());
+			p.updateScore(score);
 			p.setWinningTeam(team);
 		}
+		for (GameObserver o : observers) {
+			o.updateScore(game.packedScore());
+			o.setWinningTeam(team);
+		}
 	}
 }
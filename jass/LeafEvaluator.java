@@ -0,0 +1,25 @@
+package javass.jass;
+
+/**
+ * An estimate of the outcome of a turn from one of its states, letting a
+ * {@link MctsPlayer} stop its playouts before the end of the turn. The points
+ * left in a turn are those of the unplayed cards and of the last trick, the
+ * points of a match are not estimated.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public interface LeafEvaluator {
+    
+    /**
+     * Estimates the share of the points left in the turn that the team of the given player will make,
+     * must not allocate any object.
+     * @param pkScore the packed version of the current score.
+     * @param pkUnplayedCards the packed version of the set of unplayed cards, not empty.
+     * @param pkTrick the packed version of the current trick, empty.
+     * @param pkHand the packed version of the hand of the player, included in the unplayed cards.
+     * @param player the player holding the hand.
+     * @return a double between 0 and 1, the estimated share of the points left.
+     */
+    double share(long pkScore, long pkUnplayedCards, int pkTrick, long pkHand, PlayerId player);
+}
@@ -0,0 +1,158 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javass.jass.Card.Color;
+import javass.jass.Card.Rank;
+
+/**
+ * A {@link LeafEvaluator} computing a weighted sum of features of the
+ * situation of the player: the trumps and other cards it holds and those left
+ * to the other players, the points of these cards, the honors of trump, who
+ * leads the trick and the points already made in the turn.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class LinearEvaluator implements LeafEvaluator {
+    
+    /**
+     * The number of features, and of weights.
+     */
+    public static final int FEATURE_COUNT = 21;
+    
+    private static final float MAX_CARD_POINTS = 152;
+    private static final float OTHER_CARDS = (Color.COUNT - 1) * Rank.COUNT;
+    private static final ThreadLocal<float[]> FEATURES = ThreadLocal.withInitial(() -> new float[FEATURE_COUNT]);
+    
+    private final float[] weights;
+    
+    /**
+     * A {@link LeafEvaluator} computing a weighted sum of features.
+     * @param weights the weights of the features, in the order of {@link #features}.
+     * @throws IllegalArgumentException if there is not one weight per feature.
+     */
+    public LinearEvaluator(float[] weights) {
+        checkArgument(weights.length == FEATURE_COUNT);
+        
+        this.weights = weights.clone();
+    }
+    
+    /**
+     * Reads the weights of an evaluator written by {@link #save(Path)}.
+     * @param file the file of the weights.
+     * @throws IOException if the file cannot be read or does not hold the weights of an evaluator.
+     * @return a new evaluator with the weights of the file.
+     */
+    public static LinearEvaluator load(Path file) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (b.remaining() != FEATURE_COUNT * Float.BYTES)
+            throw new IOException("Not the weights of an evaluator: " + file);
+        
+        float[] weights = new float[FEATURE_COUNT];
+        b.asFloatBuffer().get(weights);
+        return new LinearEvaluator(weights);
+    }
+    
+    /**
+     * Writes the weights of the evaluator, as big-endian floats.
+     * @param file the file of the weights, replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(FEATURE_COUNT * Float.BYTES);
+        b.asFloatBuffer().put(weights);
+        Files.write(file, b.array());
+    }
+    
+    /**
+     * Gives the weights of the evaluator.
+     * @return a copy of the weights.
+     */
+    public float[] weights() {
+        return weights.clone();
+    }
+
+    @Override
+    public double share(long pkScore, long pkUnplayedCards, int pkTrick, long pkHand, PlayerId player) {
+        float[] x = FEATURES.get();
+        features(pkScore, pkUnplayedCards, pkTrick, pkHand, player, x);
+        
+        double v = 0;
+        for (int i = 0; i < FEATURE_COUNT; i++)
+            v += weights[i] * x[i];
+        return Math.min(1, Math.max(0, v));
+    }
+    
+    /**
+     * Computes the features of a situation, with the arguments of {@link #share}.
+     * @param pkScore the packed version of the current score.
+     * @param pkUnplayedCards the packed version of the set of unplayed cards, not empty.
+     * @param pkTrick the packed version of the current trick, empty.
+     * @param pkHand the packed version of the hand of the player, included in the unplayed cards.
+     * @param player the player holding the hand.
+     * @param features the array receiving the FEATURE_COUNT features.
+     */
+    public static void features(long pkScore, long pkUnplayedCards, int pkTrick, long pkHand, PlayerId player, float[] features) {
+        Color trump = PackedTrick.trump(pkTrick);
+        long others = PackedCardSet.difference(pkUnplayedCards, pkHand);
+        int handTrumps = PackedCardSet.size(PackedCardSet.subsetOfColor(pkHand, trump));
+        int otherTrumps = PackedCardSet.size(PackedCardSet.subsetOfColor(others, trump));
+        TeamId team = player.team();
+        int leader = (PackedTrick.player(pkTrick, 0).ordinal() - player.ordinal() + PlayerId.COUNT) % PlayerId.COUNT;
+        
+        int voids = 0;
+        int aces = 0;
+        for (int c = 0; c < Color.COUNT; c++) {
+            Color color = Color.ALL.get(c);
+            if (color != trump) {
+                if (PackedCardSet.isEmpty(PackedCardSet.subsetOfColor(pkHand, color))
+                        && !PackedCardSet.isEmpty(PackedCardSet.subsetOfColor(others, color)))
+                    voids++;
+                if (PackedCardSet.contains(pkHand, PackedCard.pack(color, Rank.ACE)))
+                    aces++;
+            }
+        }
+        
+        int i = 0;
+        features[i++] = 1;
+        features[i++] = handTrumps / (float) Rank.COUNT;
+        features[i++] = otherTrumps / (float) Rank.COUNT;
+        features[i++] = (PackedCardSet.size(pkHand) - handTrumps) / OTHER_CARDS;
+        features[i++] = (PackedCardSet.size(others) - otherTrumps) / OTHER_CARDS;
+        features[i++] = PackedCardSet.points(pkHand, trump) / MAX_CARD_POINTS;
+        features[i++] = PackedCardSet.points(others, trump) / MAX_CARD_POINTS;
+        features[i++] = holds(pkHand, trump, Rank.JACK);
+        features[i++] = holds(pkHand, trump, Rank.NINE);
+        features[i++] = holds(pkHand, trump, Rank.ACE);
+        features[i++] = holds(others, trump, Rank.JACK);
+        features[i++] = holds(others, trump, Rank.NINE);
+        features[i++] = aces / (float) (Color.COUNT - 1);
+        features[i++] = voids / (float) (Color.COUNT - 1);
+        //Who leads the trick, relative to the player: itself, its left opponent, its partner or its right opponent.
+        for (int p = 0; p < PlayerId.COUNT; p++)
+            features[i++] = leader == p ? 1 : 0;
+        features[i++] = PackedCardSet.size(pkUnplayedCards) / (float) (PlayerId.COUNT * Jass.HAND_SIZE);
+        features[i++] = PackedScore.turnPoints(pkScore, team) / MAX_CARD_POINTS;
+        features[i++] = PackedScore.turnPoints(pkScore, team.other()) / MAX_CARD_POINTS;
+        assert i == FEATURE_COUNT;
+    }
+    
+    @Override
+    public String toString() {
+        return Arrays.toString(weights);
+    }
+    
+    /*
+     * Returns 1 if the given set contains the card of the given color and rank, 0 otherwise.
+     */
+    private static float holds(long pkCardSet, Color color, Rank rank) {
+        return PackedCardSet.contains(pkCardSet, PackedCard.pack(color, rank)) ? 1 : 0;
+    }
+}
@@ -3,7 +3,15 @@ package javass.jass;
 import static javass.Preconditions.checkArgument;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javass.jass.Card.Color;
+import javass.metrics.SearchMetrics;
 
 /**
  * A simulated player that plays cards selected by a Monte Carlo search tree Algorithm.
@@ -14,60 +22,358 @@ import java.util.SplittableRandom;
 public final class MctsPlayer implements Player {
 
 	private final static int EXPLORATION_CONST = 40;
+	//A node with n visits may have at most WIDENING_COEFF * n^WIDENING_EXPONENT children. A root is thus fully
+	//expanded after about 20 visits, the widening acting on the deeper nodes, which are visited much less;
+	//narrower widenings lost against the plain search in MctsBenchmark.
+	private final static double WIDENING_COEFF = 2;
+	private final static double WIDENING_EXPONENT = 0.5;
+	//The exploration constant of the formulas using normalized rewards.
+	private final static double NORMALIZED_EXPLORATION_CONST = Math.sqrt(2);
+	//The number of visits of a child at which its own statistics weight as much as its RAVE statistics.
+	private final static double RAVE_EQUIVALENCE = 300;
+	//The most points a team can make in a turn, used to normalize the rewards.
+	private final static double MAX_TURN_POINTS = 257;
+	private final static int MAX_PLAYOUT_LENGTH = PlayerId.COUNT * Jass.HAND_SIZE;
 
 	private final SplittableRandom rng;
 	private final PlayerId id;
 	private final int iterations;
+	private final PlayoutPolicy playoutPolicy;
+	private final SelectionPolicy selectionPolicy;
+	private final LeafEvaluator leafEvaluator;
+	private final int playoutTricks;
+	//The cards played during the last playout and their players, for the RAVE statistics.
+	private final int[] playoutCards = new int[MAX_PLAYOUT_LENGTH];
+	private final PlayerId[] playoutPlayers = new PlayerId[MAX_PLAYOUT_LENGTH];
+	//The number of visits of the children of the root of the last search, indexed by packed card.
+	private final int[] rootVisits = new int[PackedCard.INVALID + 1];
+	private int playoutLength;
+	private SearchMetrics metrics;
+	private double wideningCoeff = WIDENING_COEFF;
+	private double wideningExponent = WIDENING_EXPONENT;
+
+	//The state of the turn as seen through the updates of the game, to ponder while the other players think.
+	private long knownHand;
+	private long knownScore = PackedScore.INITIAL;
+	private long knownUnplayedCards = PackedCardSet.ALL_CARDS;
+	private Executor ponderExecutor;
+	private int ponderBudget;
+	//The tree searched while pondering, used by the pondering task until it is stopped.
+	private Node ponderRoot;
+	private long ponderHand;
+	private CompletableFuture<Void> pondering;
+	//Claimed by the pondering task when it starts, or by the player so that a task still queued never runs.
+	private AtomicBoolean ponderClaimed;
+	private int ponderIterationsLeft;
+	private volatile boolean ponderStopped;
+	private OpeningBook openingBook;
 
 	/**
-	 * A simulated player that plays cards selected by a Monte Carlo search tree Algorithm.
+	 * A simulated player that plays cards selected by a Monte Carlo search tree Algorithm,
+	 * using uniformly random playouts.
 	 * @param ownId the playerId of the simulated player.
 	 * @param rngSeed a long the seed for the pseudo-random number generator used to simulate random turns. 
 	 * @param iterations the number of iteration of the algorithm, must be superior to the size of a hand of Jass.
 	 * @throws IllegalArgumentException if the number of iterations is inferior to 9.
 	 */
 	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations) {
+		this(ownId, rngSeed, iterations, PlayoutPolicy.RANDOM);
+	}
+
+	/**
+	 * A simulated player that plays cards selected by a Monte Carlo search tree Algorithm.
+	 * @param ownId the playerId of the simulated player.
+	 * @param rngSeed a long the seed for the pseudo-random number generator used to simulate random turns. 
+	 * @param iterations the number of iteration of the algorithm, must be superior to the size of a hand of Jass.
+	 * @param playoutPolicy the policy choosing the cards played during the playouts.
+	 * @throws IllegalArgumentException if the number of iterations is inferior to 9.
+	 */
+	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations, PlayoutPolicy playoutPolicy) {
+		this(ownId, rngSeed, iterations, playoutPolicy, SelectionPolicy.UCB1);
+	}
+
+	/**
+	 * A simulated player that plays cards selected by a Monte Carlo search tree Algorithm.
+	 * @param ownId the playerId of the simulated player.
+	 * @param rngSeed a long the seed for the pseudo-random number generator used to simulate random turns. 
+	 * @param iterations the number of iteration of the algorithm, must be superior to the size of a hand of Jass.
+	 * @param playoutPolicy the policy choosing the cards played during the playouts.
+	 * @param selectionPolicy the formula selecting the children to explore in the tree.
+	 * @throws IllegalArgumentException if the number of iterations is inferior to 9.
+	 */
+	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations, PlayoutPolicy playoutPolicy, SelectionPolicy selectionPolicy) {
+		this(ownId, rngSeed, iterations, playoutPolicy, selectionPolicy, null, Jass.TRICKS_PER_TURN);
+	}
+
+	/**
+	 * A simulated player that plays cards selected by a Monte Carlo search tree Algorithm,
+	 * whose playouts stop after a number of tricks and are scored by a {@link LeafEvaluator}.
+	 * @param ownId the playerId of the simulated player.
+	 * @param rngSeed a long the seed for the pseudo-random number generator used to simulate random turns. 
+	 * @param iterations the number of iteration of the algorithm, must be superior to the size of a hand of Jass.
+	 * @param playoutPolicy the policy choosing the cards played during the playouts.
+	 * @param selectionPolicy the formula selecting the children to explore in the tree.
+	 * @param leafEvaluator the evaluator of the states where the playouts stop, null to play them to the end of the turn.
+	 * @param playoutTricks the number of tricks collected by a playout before it is evaluated.
+	 * @throws IllegalArgumentException if the number of iterations is inferior to 9 or playoutTricks is not positive.
+	 */
+	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations, PlayoutPolicy playoutPolicy, SelectionPolicy selectionPolicy,
+	        LeafEvaluator leafEvaluator, int playoutTricks) {
 		checkArgument(iterations >= Jass.HAND_SIZE);
+		checkArgument(playoutTricks > 0);
 
 		this.rng = new SplittableRandom(rngSeed);
 		this.id = ownId;
 		this.iterations = iterations;
+		this.playoutPolicy = playoutPolicy;
+		this.selectionPolicy = selectionPolicy;
+		this.leafEvaluator = leafEvaluator;
+		this.playoutTricks = playoutTricks;
 	}
 
 	@Override
 	public Card cardToPlay(TurnState state, CardSet hand) {
-		Node root = new Node(state, playableCards(state, hand.packed(), id), id);
-		ArrayList<Node> path;
-
-		for (int i = 0; i < iterations; ++i) {
-		    //Add nodes to the path.
-			path = root.addNode(hand.packed());
-			//Simulate the last node of the path.
-			long score = simulate(path.get(path.size()-1), hand.packed());
-			//Propagate the score through all the nodes.
-			backPropagateScore(score, path);
+		long start = metrics == null ? 0 : System.nanoTime();
+		//Continues the search of the tree pondered, if it reached the current state.
+		Node root = stopPondering(state, hand.packed());
+		//The budget is spent by the pondering between two cards of the player, reused trees or not.
+		ponderIterationsLeft = ponderBudget;
+		//Leads the card of the book at the beginning of a turn, if the book has the hand.
+		if (openingBook != null && state.packedUnplayedCards() == PackedCardSet.ALL_CARDS) {
+			int lead = openingBook.card(hand.packed(), PackedTrick.trump(state.packedTrick()));
+			if (lead != PackedCard.INVALID && PackedCardSet.contains(hand.packed(), lead)) {
+				//The card of the book gets the visits, as if a search had given it all its iterations.
+				Arrays.fill(rootVisits, 0);
+				rootVisits[lead] = iterations;
+				if (metrics != null)
+					metrics.recordBookHit();
+				return Card.ofPacked(lead);
+			}
 		}
-		return Card.ofPacked(PackedCardSet.get(playableCards(state, hand.packed(), id), root.highestV(0)));
+		if (root == null)
+			root = new Node(state, playableCards(state, hand.packed(), id), PackedCard.INVALID, id);
+		int pondered = root.n;
+
+		while (root.n < iterations)
+			iterate(root, hand.packed());
+		Arrays.fill(rootVisits, 0);
+		for (int i = 0; i < root.childCount; i++)
+			rootVisits[root.children[i].card] = root.children[i].n;
+		
+		Node best = root.children[root.highestV(0)];
+		if (metrics != null)
+			metrics.record(PackedTrick.index(state.packedTrick()), System.nanoTime() - start, root.n - pondered,
+			        root.size(), root.depth(), best.card, (double) best.n / root.n, rootVisits);
+		return Card.ofPacked(best.card);
+	}
+
+	/**
+	 * Sets the progressive widening of the tree: a node visited n times may have at most
+	 * coefficient * n^exponent children, expanded from the strongest card. With a coefficient of 0,
+	 * the plain search expands every child of a node before selecting one, in the order of the cards.
+	 * @param coefficient the coefficient of the widening, or 0 to search without widening nor ordering.
+	 * @param exponent the exponent of the widening.
+	 * @throws IllegalArgumentException if coefficient or exponent is negative.
+	 */
+	public void setWidening(double coefficient, double exponent) {
+		checkArgument(coefficient >= 0 && exponent >= 0);
+		
+		this.wideningCoeff = coefficient;
+		this.wideningExponent = exponent;
+	}
+
+	/**
+	 * Sets the book of the first leads of the turns, played without searching when it has the hand.
+	 * @param openingBook the book of the first leads, or null to search them.
+	 */
+	public void setOpeningBook(OpeningBook openingBook) {
+		this.openingBook = openingBook;
+	}
+
+	/**
+	 * Lets the player search while the other players choose their cards, in a task of the given executor.
+	 * The tree searched is kept for the next call to cardToPlay if it reached its state.
+	 * The executor must not run the tasks on the thread calling the player, such as a single thread also
+	 * advancing the game: a task queued there is dropped without pondering, and a direct executor ponders
+	 * the whole budget before the update of the trick returns.
+	 * @param executor the executor running the pondering tasks, ideally on spare cores, or null to stop pondering.
+	 * @param budget the most iterations pondered between two cards of the player.
+	 * @throws IllegalArgumentException if budget is negative.
+	 */
+	public void setPondering(Executor executor, int budget) {
+		checkArgument(budget >= 0);
+		
+		stopPondering(null, PackedCardSet.EMPTY);
+		this.ponderExecutor = executor;
+		this.ponderBudget = budget;
+		this.ponderIterationsLeft = budget;
+	}
+
+	@Override
+	public void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+		stopPondering(null, PackedCardSet.EMPTY);
+	}
+
+	@Override
+	public void updateHand(CardSet newHand) {
+		knownHand = newHand.packed();
+	}
+
+	@Override
+	public void setTrump(Color trump) {
+		//A new turn begins.
+		stopPondering(null, PackedCardSet.EMPTY);
+		knownUnplayedCards = PackedCardSet.ALL_CARDS;
+	}
+
+	@Override
+	public void updateScore(Score score) {
+		knownScore = score.packed();
+	}
+
+	@Override
+	public void updateTrick(Trick newTrick) {
+		int pkTrick = newTrick.packed();
+		for (int i = 0; i < PackedTrick.size(pkTrick); i++)
+			knownUnplayedCards = PackedCardSet.remove(knownUnplayedCards, PackedTrick.card(pkTrick, i));
+		
+		//Ponders when another player is to play.
+		if (ponderExecutor != null && ponderBudget > 0 && !PackedTrick.isFull(pkTrick) 
+		        && PackedTrick.player(pkTrick, PackedTrick.size(pkTrick)) != id
+		        && PackedCardSet.difference(knownHand, knownUnplayedCards) == PackedCardSet.EMPTY)
+			startPondering(TurnState.ofPackedComponents(knownScore, knownUnplayedCards, pkTrick), knownHand);
+	}
+
+	@Override
+	public void setWinningTeam(TeamId winningTeam) {
+		stopPondering(null, PackedCardSet.EMPTY);
+	}
+
+	/**
+	 * Sets the metrics recording the searches of the player, measured only while they are set.
+	 * @param metrics the metrics recording the following searches, or null to stop recording them.
+	 */
+	public void setMetrics(SearchMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Gives the number of visits the last search gave to the given card, showing how the search distributed its iterations.
+	 * @param card a card.
+	 * @return the number of visits of the child of the root playing the given card in the last search,
+	 * 0 if it was not playable or not explored.
+	 */
+	public int rootVisits(Card card) {
+		return rootVisits[card.packed()];
 	}
 
 	/*
-	 * Simulate the possible score of a random turn given a certain state and hand.
-	 * Returns the final score of a finished random turn.
+	 * Runs one iteration of the search of the tree of the given root.
+	 */
+	private void iterate(Node root, long hand) {
+	    //Add nodes to the path.
+		ArrayList<Node> path = root.addNode(hand, selectionPolicy, wideningCoeff, wideningExponent);
+		//Simulate the last node of the path.
+		long score = simulate(path.get(path.size()-1), hand);
+		//Propagate the score through all the nodes.
+		backPropagateScore(score, path);
+	}
+
+	/*
+	 * Starts to ponder from the given state, from its node in the tree pondered so far if it reached it,
+	 * with the iterations left of the budget, which is only refilled when the player plays.
+	 */
+	private void startPondering(TurnState state, long hand) {
+		Node root = stopPondering(state, hand);
+		if (root == null)
+			root = new Node(state, playableCards(state, hand, id), PackedCard.INVALID, id);
+		
+		Node ponderedRoot = root;
+		ponderRoot = root;
+		ponderHand = hand;
+		ponderStopped = false;
+		AtomicBoolean claimed = new AtomicBoolean(false);
+		ponderClaimed = claimed;
+		pondering = CompletableFuture.runAsync(() -> {
+			if (!claimed.compareAndSet(false, true))
+				return;
+			while (ponderIterationsLeft > 0 && !ponderStopped) {
+				iterate(ponderedRoot, hand);
+				ponderIterationsLeft--;
+			}
+		}, ponderExecutor);
+	}
+
+	/*
+	 * Stops the pondering task and waits for the end of its iteration, or keeps it from running if it has not started.
+	 * Returns the node of the pondered tree of the given state and hand, or null if there is none.
+	 */
+	private Node stopPondering(TurnState state, long hand) {
+		if (pondering == null)
+			return null;
+		
+		ponderStopped = true;
+		//Waiting for a task still queued could wait forever if it is queued behind the caller.
+		if (!ponderClaimed.compareAndSet(false, true))
+			pondering.join();
+		Node root = ponderRoot;
+		pondering = null;
+		ponderClaimed = null;
+		ponderRoot = null;
+		if (state == null || hand != ponderHand)
+			return null;
+		
+		long played = PackedCardSet.difference(root.state.packedUnplayedCards(), state.packedUnplayedCards());
+		return root.find(state, played);
+	}
+
+	/*
+	 * Simulate the possible score of a turn played by the playout policy given a certain state and hand.
+	 * Returns the final score of the finished turn, or the score estimated by the leaf evaluator
+	 * once playoutTricks tricks have been collected.
 	 */
 	private long simulate(Node node, long hand) {
 		TurnState s = node.state;
-		//Plays a random turn from the state of the given node.
+		playoutLength = 0;
+		//Plays a turn chosen by the playout policy from the state of the given node.
 		if(s.isTerminal())
 		    return s.packedScore();
-		else
+		else {
+		    int lastTrick = PackedTrick.index(s.packedTrick()) + playoutTricks;
     		while (!s.isTerminal()) {
+    			if (leafEvaluator != null && PackedTrick.index(s.packedTrick()) >= lastTrick && PackedTrick.isEmpty(s.packedTrick()))
+    				return estimatedScore(s, hand);
     			long pC = playableCards(s, hand, id);
-    			Card randomCard = Card.ofPacked(PackedCardSet.get(pC, rng.nextInt(PackedCardSet.size(pC))));
-    			s = s.withNewCardPlayedAndTrickCollected(randomCard);
+    			//The other players may play any unplayed card, so only our own cards follow the policy.
+    			PlayoutPolicy policy = s.nextPlayer().equals(id) ? playoutPolicy : PlayoutPolicy.RANDOM;
+    			Card card = Card.ofPacked(policy.cardToPlay(s.packedTrick(), pC, rng));
+    			if (selectionPolicy == SelectionPolicy.RAVE) {
+    			    playoutCards[playoutLength] = card.packed();
+    			    playoutPlayers[playoutLength++] = s.nextPlayer();
+    			}
+    			s = s.withNewCardPlayedAndTrickCollected(card);
     		}
+		}
 		return s.packedScore();
 	}
 
+	/*
+	 * Shares the points left in the turn between the teams as estimated by the leaf evaluator.
+	 * Returns the packed score of the turn with these points added.
+	 */
+	private long estimatedScore(TurnState state, long hand) {
+		long pkScore = state.packedScore();
+		long unplayed = state.packedUnplayedCards();
+		int pointsLeft = PackedCardSet.points(unplayed, PackedTrick.trump(state.packedTrick())) + Jass.LAST_TRICK_ADDITIONAL_POINTS;
+		double share = leafEvaluator.share(pkScore, unplayed, state.packedTrick(), PackedCardSet.intersection(hand, unplayed), id);
+		int ownPoints = (int) Math.round(share * pointsLeft);
+		int points1 = id.team() == TeamId.TEAM_1 ? ownPoints : pointsLeft - ownPoints;
+		
+		return PackedScore.pack(
+		        PackedScore.turnTricks(pkScore, TeamId.TEAM_1), PackedScore.turnPoints(pkScore, TeamId.TEAM_1) + points1, PackedScore.gamePoints(pkScore, TeamId.TEAM_1),
+		        PackedScore.turnTricks(pkScore, TeamId.TEAM_2), PackedScore.turnPoints(pkScore, TeamId.TEAM_2) + pointsLeft - points1, PackedScore.gamePoints(pkScore, TeamId.TEAM_2));
+	}
+
 	/*
 	 * Determines the playable cards for a given state taking account of the non-played cards and the hand of the payer.
 	 * Returns the playable cards for state.
@@ -92,6 +398,31 @@ public final class MctsPlayer implements Player {
 					path.get(i - 1)
 					.state.nextPlayer()
 					.team());
+		
+		if (selectionPolicy == SelectionPolicy.RAVE)
+		    backPropagateAmaf(score, path);
+	}
+
+	/*
+	 * Updates the all-moves-as-first statistics of the nodes of the path: every card played later, in the tree
+	 * or in the playout, by the player to move at a node counts as if it had been played first at this node.
+	 */
+	private void backPropagateAmaf(long score, ArrayList<Node> path) {
+		for (int i = 0; i < path.size(); ++i) {
+			Node node = path.get(i);
+			if (node.state.isTerminal())
+				continue;
+			
+			PlayerId mover = node.state.nextPlayer();
+			double reward = PackedScore.turnPoints(score, mover.team()) / MAX_TURN_POINTS;
+			
+			for (int j = i + 1; j < path.size(); ++j)
+				if (path.get(j - 1).state.nextPlayer() == mover)
+					node.updateAmaf(path.get(j).card, reward);
+			for (int j = 0; j < playoutLength; ++j)
+				if (playoutPlayers[j] == mover)
+					node.updateAmaf(playoutCards[j], reward);
+		}
 	}
 /**
  * A node of the Monte Carlo Tree Search algorithm. 
@@ -101,18 +432,31 @@ public final class MctsPlayer implements Player {
  */
 	private static final class Node {
 		private final TurnState state;
+		private final int card;
+		private final long playableCards;
 		private long potentialCards;
 		private final Node[] children;
+		private int childCount;
 		private int n;
 		private int s;
+		//The sum of the normalized rewards and of their squares, and log(n+1) cached at each visit.
+		private double r;
+		private double r2;
+		private double logN;
+		//The all-moves-as-first visits and rewards of the playable cards, in the order of playableCards.
+		private int[] amafN;
+		private double[] amafR;
 		private PlayerId id;
 
-		private Node(TurnState state, long playableCards, PlayerId id) {
+		private Node(TurnState state, long playableCards, int card, PlayerId id) {
 			this.state = state;
+			this.card = card;
+			this.playableCards = playableCards;
 			this.potentialCards = playableCards;
 			this.s = 0;
 			this.n = 0;
 			this.children = new Node[PackedCardSet.size(potentialCards)];
+			this.childCount = 0;
 			this.id = id;
 		}
 
@@ -126,14 +470,11 @@ public final class MctsPlayer implements Player {
 			int bestVIndex = 0;
 			double v;
 			double bestV = 0;
-			for (int i = 0; i < children.length; i++) {
-				if (children[i] == null)
-					return i;
-
+			for (int i = 0; i < childCount; i++) {
 				//Computes the function V.
 				if (children[i].n > 0)
 					v = (double) (children[i].s) / (double)(children[i].n)
-					+ c * Math.sqrt((Math.log(n+1) / (double)children[i].n));
+					+ c * Math.sqrt((logN / (double)children[i].n));
 				else
 					return i;
 
@@ -146,19 +487,55 @@ public final class MctsPlayer implements Player {
 			return bestVIndex;
 		}
 
+		/*
+		 * A method that gives the index of the child to explore according to the given selection policy.
+		 * Returns the index of the selected child in children[], or of its first unvisited child.
+		 */
+		private int select(SelectionPolicy policy) {
+			if (policy == SelectionPolicy.UCB1)
+				return highestV(EXPLORATION_CONST);
+			
+			int bestIndex = 0;
+			double bestV = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < childCount; i++) {
+				Node child = children[i];
+				if (child.n == 0)
+					return i;
+				
+				double mean = child.r / child.n;
+				double v;
+				if (policy == SelectionPolicy.UCB1_TUNED) {
+					double variance = Math.max(0, child.r2 / child.n - mean * mean);
+					double bound = variance + Math.sqrt(2 * logN / child.n);
+					v = mean + Math.sqrt(logN / child.n * Math.min(0.25, bound));
+				} else {
+					int slot = amafSlot(child.card);
+					double amafMean = amafN == null || amafN[slot] == 0 ? mean : amafR[slot] / amafN[slot];
+					double beta = Math.sqrt(RAVE_EQUIVALENCE / (3 * child.n + RAVE_EQUIVALENCE));
+					v = (1 - beta) * mean + beta * amafMean 
+					        + NORMALIZED_EXPLORATION_CONST * Math.sqrt(logN / child.n);
+				}
+				
+				if (v > bestV) {
+					bestV = v;
+					bestIndex = i;
+				}
+			}
+			return bestIndex;
+		}
+
 		/*
 		 * A method that adds if possible a new node at the right place of the tree.
 		 * Returns a List that contains the path from the root to the new node freshly created.
 		 */
-		private ArrayList<Node> addNode(long hand) {
+		private ArrayList<Node> addNode(long hand, SelectionPolicy policy, double wideningCoeff, double wideningExponent) {
 			ArrayList<Node> path = new ArrayList<>();
-			boolean newNodeAdded = false;
 			path.add(this);
 
 			Node lastNode = this;
-			//Goes through all the best children of the last node and adds them to the path until a node does not have all its children.
-			while (lastNode.hasAllChildren()) {
-				lastNode = lastNode.children[lastNode.highestV(EXPLORATION_CONST)];
+			//Goes through all the best children of the last node and adds them to the path until a node may get a new child.
+			while (lastNode.isWidened(wideningCoeff, wideningExponent)) {
+				lastNode = lastNode.children[lastNode.select(policy)];
 				path.add(lastNode);
 				if (lastNode.state.isTerminal())
 					return path;
@@ -166,39 +543,81 @@ public final class MctsPlayer implements Player {
 
 			//Creates a new node as a child of last node
 			if (!PackedCardSet.isEmpty(lastNode.potentialCards)) {
-			    //Computes a new turn state with the first card of the potential cards played and removes the played card form the potential cards. 
-				int card = PackedCardSet.get(lastNode.potentialCards, 0);
+			    //Computes a new turn state with the most promising potential card played, or the first one without widening,
+			    //and removes the played card form the potential cards. 
+				int card = wideningCoeff == 0 ? PackedCardSet.get(lastNode.potentialCards, 0) : lastNode.mostPromisingCard();
 				TurnState newState = lastNode.state
 						.withNewCardPlayedAndTrickCollected(Card.ofPacked(card));
 				lastNode.potentialCards = PackedCardSet.remove(lastNode.potentialCards, card);
 
 				long newPotentialCards = playableCards(newState, hand, id);
 
-				if (PackedCardSet.isEmpty(newPotentialCards))
-					return path;
-
-				Node node = new Node(newState, newPotentialCards, id);
-				
-				//Adds the new computed node to the children of this node where there is space.
-				for (int i = 0; i < lastNode.children.length; i++) {
-					if (newNodeAdded)
-						break;
-
-					if (lastNode.children[i] == null) {
-						lastNode.children[i] = node;
-						newNodeAdded = true;
-					}
-				}
+				//Adds the new computed node after the other children of this node.
+				lastNode.children[lastNode.childCount++] = new Node(newState, newPotentialCards, card, id);
 			}
 			return path;
 		}
 
 		/*
-		 * This boolean indicates if a children[]is full.
-		 * Returns true, if children[] is full.
+		 * This boolean indicates if the node may not get a new child yet, either because children[] is full
+		 * or because the node has not been visited enough (progressive widening).
+		 * Returns true, if a child of the node must be selected instead of creating a new one.
+		 */
+		private boolean isWidened(double wideningCoeff, double wideningExponent) {
+			return childCount == children.length
+			        || wideningCoeff > 0 && childCount > 0 && childCount >= wideningCoeff * Math.pow(n, wideningExponent);
+		}
+
+		/*
+		 * Orders the moves by their prior, read from the card strength table: the strongest potential card
+		 * is the most likely to win the trick and is expanded first.
+		 * Returns the packed version of the strongest potential card.
+		 */
+		private int mostPromisingCard() {
+			Card.Color trump = PackedTrick.trump(state.packedTrick());
+			int best = Long.numberOfTrailingZeros(potentialCards);
+			for (long set = potentialCards & (potentialCards - 1); set != PackedCardSet.EMPTY; set &= set - 1) {
+				int pkCard = Long.numberOfTrailingZeros(set);
+				if (PackedCard.strength(trump, pkCard) > PackedCard.strength(trump, best))
+					best = pkCard;
+			}
+			return best;
+		}
+
+		/*
+		 * Returns the node of the tree of this node with the given state, following only the given cards,
+		 * or null if the tree does not reach it.
 		 */
-		private boolean hasAllChildren() {
-			return children[children.length-1] != null;
+		private Node find(TurnState target, long played) {
+			if (state.equals(target))
+				return this;
+			for (int i = 0; i < childCount; i++)
+				if (PackedCardSet.contains(played, children[i].card)) {
+					Node node = children[i].find(target, played);
+					if (node != null)
+						return node;
+				}
+			return null;
+		}
+
+		/*
+		 * Returns the number of nodes of the tree of this node.
+		 */
+		private int size() {
+			int size = 1;
+			for (int i = 0; i < childCount; i++)
+				size += children[i].size();
+			return size;
+		}
+
+		/*
+		 * Returns the length of the longest path from this node to a leaf of its tree.
+		 */
+		private int depth() {
+			int depth = 0;
+			for (int i = 0; i < childCount; i++)
+				depth = Math.max(depth, children[i].depth() + 1);
+			return depth;
 		}
 
 		/*
@@ -206,7 +625,34 @@ public final class MctsPlayer implements Player {
 		 */
 		private void updateScore(long score, TeamId t) {
 			s += PackedScore.totalPoints(score, t);
+			double reward = PackedScore.turnPoints(score, t) / MAX_TURN_POINTS;
+			r += reward;
+			r2 += reward * reward;
 			n++;
+			logN = Math.log(n + 1);
+		}
+
+		/*
+		 * This method counts the given card as played first from this node, if it was playable.
+		 */
+		private void updateAmaf(int pkCard, double reward) {
+			if (!PackedCardSet.contains(playableCards, pkCard))
+				return;
+			
+			if (amafN == null) {
+				amafN = new int[children.length];
+				amafR = new double[children.length];
+			}
+			int slot = amafSlot(pkCard);
+			amafN[slot]++;
+			amafR[slot] += reward;
+		}
+
+		/*
+		 * Returns the index of the given playable card in the statistics arrays, its rank among the playable cards.
+		 */
+		private int amafSlot(int pkCard) {
+			return Long.bitCount(playableCards & ((1L << pkCard) - 1));
 		}
 
 	}
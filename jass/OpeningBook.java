@@ -0,0 +1,132 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javass.jass.Card.Color;
+
+/**
+ * A book of the first leads of the turns: the card to lead with a hand and a
+ * trump, found once and for all by deep searches. The hands are folded
+ * together by {@link SuitIsomorphism}, so that a hand and the hands differing
+ * only by their non-trump colors share one entry. The book is a
+ * file of sorted keys followed by their cards, mapped in memory and searched
+ * by dichotomy.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class OpeningBook {
+    
+    /**
+     * The first int of a book file.
+     */
+    public static final int MAGIC = 0x4A424F4F;
+    
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    
+    private final LongBuffer keys;
+    private final ByteBuffer cards;
+    private final int size;
+    
+    private OpeningBook(ByteBuffer file) throws IOException {
+        if (file.limit() < HEADER_SIZE || file.getInt(0) != MAGIC)
+            throw new IOException("Not an opening book");
+        size = file.getInt(Integer.BYTES);
+        if (file.limit() != HEADER_SIZE + size * (Long.BYTES + 1))
+            throw new IOException("Truncated opening book");
+        
+        file.position(HEADER_SIZE).limit(HEADER_SIZE + size * Long.BYTES);
+        keys = file.slice().asLongBuffer();
+        file.position(HEADER_SIZE + size * Long.BYTES).limit(HEADER_SIZE + size * (Long.BYTES + 1));
+        cards = file.slice();
+    }
+    
+    /**
+     * Maps the book of the given file.
+     * @param file a file written by {@link #write}.
+     * @throws IOException if the file cannot be read or is not a book.
+     * @return the book of the file.
+     */
+    public static OpeningBook load(Path file) throws IOException {
+        try (FileChannel c = FileChannel.open(file, StandardOpenOption.READ)) {
+            //The mapping stays valid once the channel is closed.
+            return new OpeningBook(c.map(FileChannel.MapMode.READ_ONLY, 0, c.size()));
+        }
+    }
+    
+    /**
+     * Writes a book.
+     * @param file the file of the book, replaced if it exists.
+     * @param keys the keys of the hands, given by {@link #key}, sorted and all different.
+     * @param cards the cards to lead of the hands, in the colors of their keys.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if the keys are not sorted or there is not one card per key.
+     */
+    public static void write(Path file, long[] keys, byte[] cards) throws IOException {
+        checkArgument(keys.length == cards.length);
+        for (int i = 1; i < keys.length; i++)
+            checkArgument(keys[i - 1] < keys[i]);
+        
+        ByteBuffer b = ByteBuffer.allocate(HEADER_SIZE + keys.length * (Long.BYTES + 1));
+        b.putInt(MAGIC).putInt(keys.length);
+        b.asLongBuffer().put(keys);
+        b.position(HEADER_SIZE + keys.length * Long.BYTES);
+        b.put(cards);
+        b.flip();
+        
+        try (FileChannel c = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (b.hasRemaining())
+                c.write(b);
+        }
+    }
+    
+    /**
+     * Gives the number of hands of the book.
+     * @return the number of entries of the book.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Gives the card to lead with the given hand.
+     * @param pkHand the packed version of a full hand.
+     * @param trump the trump of the turn.
+     * @return the packed version of the card of the hand to lead, or PackedCard.INVALID if the hand is not in the book.
+     */
+    public int card(long pkHand, Color trump) {
+        int permutation = SuitIsomorphism.canonicalPermutation(trump, pkHand);
+        long key = SuitIsomorphism.apply(pkHand, permutation);
+        
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long k = keys.get(mid);
+            if (k < key)
+                low = mid + 1;
+            else if (k > key)
+                high = mid - 1;
+            else
+                return SuitIsomorphism.applyToCard(cards.get(mid), SuitIsomorphism.inverse(permutation));
+        }
+        return PackedCard.INVALID;
+    }
+    
+    /**
+     * Gives the key of a hand in a book: its canonical form, see {@link SuitIsomorphism}.
+     * @param pkHand the packed version of a hand.
+     * @param trump the trump of the turn.
+     * @return the key of the hand.
+     */
+    public static long key(long pkHand, Color trump) {
+        return SuitIsomorphism.apply(pkHand, SuitIsomorphism.canonicalPermutation(trump, pkHand));
+    }
+}
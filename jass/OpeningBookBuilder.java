@@ -0,0 +1,120 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javass.jass.Card.Color;
+
+/**
+ * Fills an {@link OpeningBook} offline: it draws random hands, folds them
+ * into their keys and searches the first lead of each new key with a
+ * {@link MctsPlayer} running many iterations.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class OpeningBookBuilder {
+    
+    private static final int DEFAULT_HANDS = 10000;
+    private static final int DEFAULT_ITERATIONS = 100000;
+    
+    private final int iterations;
+    private final Map<Long, Byte> entries = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a builder of an empty book.
+     * @param iterations the number of iterations of the search of each lead.
+     * @throws IllegalArgumentException if the number of iterations is inferior to 9.
+     */
+    public OpeningBookBuilder(int iterations) {
+        checkArgument(iterations >= Jass.HAND_SIZE);
+        
+        this.iterations = iterations;
+    }
+    
+    /**
+     * Builds a book and writes it.
+     * @param args {file} [{hands} [{iterations} [{threads} [{seed}]]]]
+     * @throws IOException if the book cannot be written.
+     * @throws InterruptedException if the main thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path file = Paths.get(args[0]);
+        int hands = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HANDS;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        
+        OpeningBookBuilder builder = new OpeningBookBuilder(iterations);
+        SplittableRandom rng = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom threadRng = rng.split();
+            int threadHands = hands / threads + (t < hands % threads ? 1 : 0);
+            DealGenerator deals = new DealGenerator(threadRng.nextLong());
+            executor.execute(() -> {
+                for (int i = 0; i < threadHands; i++)
+                    builder.add(deals.hand(), Color.ALL.get(threadRng.nextInt(Color.COUNT)), threadRng.nextLong());
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        
+        builder.write(file);
+        System.out.println(builder.size() + " hands written to " + file);
+    }
+    
+    /**
+     * Searches the first lead of the given hand, unless the book already has its key.
+     * @param pkHand the packed version of a full hand.
+     * @param trump the trump of the turn.
+     * @param rngSeed the seed of the search.
+     */
+    public void add(long pkHand, Color trump, long rngSeed) {
+        long key = OpeningBook.key(pkHand, trump);
+        if (entries.containsKey(key))
+            return;
+        
+        //A key is itself a hand whose trump is the first color, the lead found is in the colors of the key.
+        Color keyTrump = Color.ALL.get(0);
+        TurnState state = TurnState.initial(keyTrump, Score.INITIAL, PlayerId.PLAYER_1);
+        Card lead = new MctsPlayer(PlayerId.PLAYER_1, rngSeed, iterations).cardToPlay(state, CardSet.ofPacked(key));
+        entries.put(key, (byte) lead.packed());
+    }
+    
+    /**
+     * Gives the number of hands of the book.
+     * @return the number of entries of the book.
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Writes the book.
+     * @param file the file of the book, replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        long[] keys = new long[entries.size()];
+        int n = 0;
+        for (long key : entries.keySet())
+            keys[n++] = key;
+        Arrays.sort(keys);
+        
+        byte[] cards = new byte[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            cards[i] = entries.get(keys[i]);
+        OpeningBook.write(file, keys, cards);
+    }
+}
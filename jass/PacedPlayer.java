@@ -1,51 +1,95 @@
 package javass.jass;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javass.jass.Card.Color;
 import static javass.Preconditions.checkArgument;
 
 /**
- * A player that slows down the game
+ * A player that slows down the game: it plays its cards no sooner than a
+ * minimum time after it is asked for them. Given a scheduler, it does not
+ * block any thread while it waits: its underlying player chooses the card on
+ * the scheduler, and the card is released by a timer at the deadline.
  * @author Charles BEAUVILLE
  * @author Celia HOUSSIAUX
  *
  */
-public final class PacedPlayer implements Player {
+public final class PacedPlayer implements AsyncPlayer {
     private final Player underlyingPlayer;
     private final long minTime;
+    private final ScheduledExecutorService scheduler;
 
     /**
-     * A player that slows down the game
+     * A player that slows down the game, sleeping until the minimum time has elapsed.
      * @param underlyingPlayer the {@link Player} associated with this {@link PacedPlayer}.
      * @param minTime a double the minimum time in seconds to wait for the {@link Player}.
+     * @throws IllegalArgumentException if minTime is negative.
      */
     public PacedPlayer(Player underlyingPlayer, double minTime) {
+        this(underlyingPlayer, minTime, null);
+    }
+
+    /**
+     * A player that slows down the game without blocking a thread.
+     * @param underlyingPlayer the {@link Player} associated with this {@link PacedPlayer}.
+     * @param minTime a double the minimum time in seconds to wait for the {@link Player}.
+     * @param scheduler the scheduler choosing the cards of a synchronous underlying player and releasing them
+     * at the deadline, or null to sleep instead.
+     * @throws IllegalArgumentException if minTime is negative.
+     */
+    public PacedPlayer(Player underlyingPlayer, double minTime, ScheduledExecutorService scheduler) {
         checkArgument(minTime >= 0);
         
         this.underlyingPlayer = underlyingPlayer;
-        this.minTime = (long) minTime * 1000;
-
+        this.minTime = (long) (minTime * 1e9);
+        this.scheduler = scheduler;
     }
 
     @Override
     public Card cardToPlay(TurnState state, CardSet hand) {
-        long start = System.currentTimeMillis();
-        Card c = underlyingPlayer.cardToPlay(state, hand);
-        long end = System.currentTimeMillis();
+        if (scheduler != null)
+            return AsyncPlayer.super.cardToPlay(state, hand);
         
-        long timeElapsed = (end - start);
+        long start = System.nanoTime();
+        Card c = underlyingPlayer.cardToPlay(state, hand);
+        long timeLeft = minTime - (System.nanoTime() - start);
         
-        if (timeElapsed >= minTime)
-            return c;
-        else
+        if (timeLeft > 0)
             try {
-                Thread.sleep((minTime - timeElapsed));
+                TimeUnit.NANOSECONDS.sleep(timeLeft);
             } catch (InterruptedException e) {
-                /* ignore */ }
+                Thread.currentThread().interrupt();
+            }
         return c;
     }
 
+    @Override
+    public CompletableFuture<Card> cardToPlayAsync(TurnState state, CardSet hand) {
+        if (scheduler == null)
+            return CompletableFuture.completedFuture(cardToPlay(state, hand));
+        
+        long deadline = System.nanoTime() + minTime;
+        CompletableFuture<Card> card = underlyingPlayer instanceof AsyncPlayer
+                ? ((AsyncPlayer) underlyingPlayer).cardToPlayAsync(state, hand)
+                : CompletableFuture.supplyAsync(() -> underlyingPlayer.cardToPlay(state, hand), scheduler);
+        
+        //Releases the card at the deadline, or as soon as it is known if the deadline is past.
+        CompletableFuture<Card> pacedCard = new CompletableFuture<>();
+        card.whenComplete((c, e) -> {
+            long timeLeft = deadline - System.nanoTime();
+            if (e != null)
+                pacedCard.completeExceptionally(e);
+            else if (timeLeft <= 0)
+                pacedCard.complete(c);
+            else
+                scheduler.schedule(() -> pacedCard.complete(c), timeLeft, TimeUnit.NANOSECONDS);
+        });
+        return pacedCard;
+    }
+
     @Override
     public void setPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
         underlyingPlayer.setPlayers(ownId, playerNames);
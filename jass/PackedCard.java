@@ -42,6 +42,8 @@ public final class PackedCard {
 
     private static final int RANK_SIZE = 4;
     private static final int COLOR_SIZE = 2;
+    //The number of bits of a packed card.
+    static final int SIZE = RANK_SIZE + COLOR_SIZE;
     private static final int UNUSED_SIZE = 25;
 
     private static final int INDEX_TRUMP = 0;
@@ -50,6 +52,17 @@ public final class PackedCard {
     private static final int[][] PTS = { { 0, 0 }, { 0, 0 }, { 0, 0 },
             { 14, 0 }, { 10, 10 }, { 20, 2 }, { 3, 3 }, { 4, 4 }, { 11, 11 } };
 
+    //The strength of each packed card for each trump, see strength.
+    private static final int[][] STRENGTH = new int[Color.COUNT][INVALID + 1];
+    static {
+        for (Color trump : Color.ALL)
+            for (Color c : Color.ALL)
+                for (Rank r : Rank.ALL)
+                    STRENGTH[trump.ordinal()][pack(c, r)] = c == trump
+                            ? Rank.COUNT + r.trumpOrdinal()
+                            : r.ordinal();
+    }
+
     /**
      * Returns true only if the value is a valid packed {@link Card}, which
      * means if the bits containing the rank contain a value between 0 and
@@ -115,17 +128,14 @@ public final class PackedCard {
         assert isValid(
                 pkCardR) : "Invalid pkCardR in isBetter function of pkCard";
 
-        boolean bothTrump = color(pkCardL).equals(trump) && color(pkCardR).equals(trump);
-        boolean betterTrumpRank = rank(pkCardL).trumpOrdinal() > rank(pkCardR).trumpOrdinal();
-        boolean betterRank = rank(pkCardL).ordinal() > rank(pkCardR).ordinal();
-        boolean bothNotTrump = !color(pkCardL).equals(trump) && !color(pkCardR).equals(trump);
-        boolean sameColor = color(pkCardL).equals(color(pkCardR));
-        
-        if(sameColor)
-            return bothTrump ? betterTrumpRank : betterRank;
+        int colorL = Bits32.extract(pkCardL, COLOR_INDEX, COLOR_SIZE);
+        int colorR = Bits32.extract(pkCardR, COLOR_INDEX, COLOR_SIZE);
+
+        //Within a color the strengths order the ranks, between two colors only a trump wins.
+        if (colorL == colorR)
+            return STRENGTH[trump.ordinal()][pkCardL] > STRENGTH[trump.ordinal()][pkCardR];
         else
-            return !bothNotTrump ? color(pkCardL).equals(trump) : false;
-            
+            return colorL == trump.ordinal();
     }
 
     /**
@@ -140,9 +150,29 @@ public final class PackedCard {
     public static int points(Color trump, int pkCard) {
         assert isValid(pkCard) : "Invalid card in points function of pkCard";
 
-        return color(pkCard).equals(trump)
-                ? PTS[rank(pkCard).ordinal()][INDEX_TRUMP]
-                : PTS[rank(pkCard).ordinal()][INDEX_NORMAL];
+        int pkRank = Bits32.extract(pkCard, RANK_INDEX, RANK_SIZE);
+
+        return Bits32.extract(pkCard, COLOR_INDEX, COLOR_SIZE) == trump.ordinal()
+                ? PTS[pkRank][INDEX_TRUMP]
+                : PTS[pkRank][INDEX_NORMAL];
+    }
+
+    /**
+     * Returns the strength of the packed {@link Card}, read from a table: a
+     * trump is stronger than any other card, and among cards of the same
+     * {@link Color} the stronger one is the better one.
+     * 
+     * @param trump
+     *            the trump {@link Color}.
+     * @param pkCard
+     *            an int representing the packed version of a Jass {@link Card}.
+     * @return an int between 0 and 17, the strength of the given packed
+     *         {@link Card}.
+     */
+    public static int strength(Color trump, int pkCard) {
+        assert isValid(pkCard) : "Invalid card in strength function of pkCard";
+
+        return STRENGTH[trump.ordinal()][pkCard];
     }
 
     /**
@@ -15,7 +15,8 @@ import java.util.StringJoiner;
 public final class PackedCardSet {
     private PackedCardSet() {}
     
-    private static final int COLOR_SIZE = 16;
+    //The number of bits of the lane of a color.
+    static final int COLOR_SIZE = 16;
 
     private static final int SPADES_INDEX = 0;
     private static final int HEARTS_INDEX = 16;
@@ -218,6 +219,21 @@ public final class PackedCardSet {
 		return pkCardSet & colorTab[color.ordinal()] ;
 	}
 	
+	/**
+	 * Computes the points of the {@link Card}s of the given {@link CardSet}.
+	 * @param pkCardSet a long representing the packed version of a {@link CardSet} 
+	 * @param trump the trump {@link Color}.
+	 * @return the sum of the points of the {@link Card}s of the {@link CardSet}.
+	 */
+	public static int points(long pkCardSet, Card.Color trump) {
+		assert isValid(pkCardSet): "Invalid card set in points function of pkCardSet";
+
+		int points = 0;
+		for (long set = pkCardSet; set != EMPTY; set &= set - 1)
+			points += PackedCard.points(trump, Long.numberOfTrailingZeros(set));
+		return points;
+	}
+	
 	/**
 	 * Gives a textual representation of a set of cards
 	 * @param pkCardSet a long representing the packed version of a set of cards
@@ -0,0 +1,143 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import javass.jass.Card.Color;
+import javass.jass.Card.Rank;
+
+/**
+ * The operations of {@link PackedCardSet} applied to arrays of packed sets of
+ * cards at once. Each operation is a plain counted loop without branches or
+ * calls, which the JIT compiler unrolls and vectorizes where the processor
+ * allows it, and none of them checks the validity of the sets.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class PackedCardSetBatch {
+    private PackedCardSetBatch() {}
+    
+    private static final int COLOR_SIZE = PackedCardSet.COLOR_SIZE;
+    private static final int LANE_VALUES = 1 << Rank.COUNT;
+    private static final long LANE_MASK = LANE_VALUES - 1;
+    
+    //The points of the 512 subsets of the ranks of a color, as trumps and as other cards.
+    private static final int[] TRUMP_LANE_POINTS = new int[LANE_VALUES];
+    private static final int[] LANE_POINTS = new int[LANE_VALUES];
+    private static final long[] COLOR_MASKS = new long[Color.COUNT];
+    static {
+        Color trump = Color.ALL.get(0);
+        Color other = Color.ALL.get(1);
+        for (int lane = 0; lane < LANE_VALUES; lane++)
+            for (Rank r : Rank.ALL)
+                if ((lane & (1 << r.ordinal())) != 0) {
+                    TRUMP_LANE_POINTS[lane] += PackedCard.points(trump, PackedCard.pack(trump, r));
+                    LANE_POINTS[lane] += PackedCard.points(trump, PackedCard.pack(other, r));
+                }
+        for (Color c : Color.ALL)
+            COLOR_MASKS[c.ordinal()] = LANE_MASK << (c.ordinal() * COLOR_SIZE);
+    }
+    
+    /**
+     * Computes the sizes of the given sets.
+     * @param pkCardSets the packed versions of sets of cards.
+     * @param sizes the array receiving the size of each set, at least as long as pkCardSets.
+     * @throws IllegalArgumentException if sizes is too short.
+     */
+    public static void sizes(long[] pkCardSets, int[] sizes) {
+        checkArgument(sizes.length >= pkCardSets.length);
+        
+        for (int i = 0; i < pkCardSets.length; i++)
+            sizes[i] = Long.bitCount(pkCardSets[i]);
+    }
+    
+    /**
+     * Computes the intersections of the given sets with one set.
+     * @param pkCardSets the packed versions of sets of cards.
+     * @param pkCardSet the packed version of the set intersected with each of them.
+     * @param intersections the array receiving the intersections, at least as long as pkCardSets, may be pkCardSets itself.
+     * @throws IllegalArgumentException if intersections is too short.
+     */
+    public static void intersection(long[] pkCardSets, long pkCardSet, long[] intersections) {
+        checkArgument(intersections.length >= pkCardSets.length);
+        
+        for (int i = 0; i < pkCardSets.length; i++)
+            intersections[i] = pkCardSets[i] & pkCardSet;
+    }
+    
+    /**
+     * Computes the intersections of the sets of two arrays, element by element.
+     * @param pkCardSets1 the packed versions of sets of cards.
+     * @param pkCardSets2 the packed versions of sets of cards, at least as many as pkCardSets1.
+     * @param intersections the array receiving the intersections, at least as long as pkCardSets1, may be one of the others.
+     * @throws IllegalArgumentException if pkCardSets2 or intersections is too short.
+     */
+    public static void intersection(long[] pkCardSets1, long[] pkCardSets2, long[] intersections) {
+        checkArgument(pkCardSets2.length >= pkCardSets1.length && intersections.length >= pkCardSets1.length);
+        
+        for (int i = 0; i < pkCardSets1.length; i++)
+            intersections[i] = pkCardSets1[i] & pkCardSets2[i];
+    }
+    
+    /**
+     * Computes the subsets of the given sets containing only the cards of the given color.
+     * @param pkCardSets the packed versions of sets of cards.
+     * @param color a color.
+     * @param subsets the array receiving the subsets, at least as long as pkCardSets, may be pkCardSets itself.
+     * @throws IllegalArgumentException if subsets is too short.
+     */
+    public static void subsetOfColor(long[] pkCardSets, Color color, long[] subsets) {
+        intersection(pkCardSets, COLOR_MASKS[color.ordinal()], subsets);
+    }
+    
+    /**
+     * Computes the points of the cards of the given sets.
+     * @param pkCardSets the packed versions of sets of cards.
+     * @param trump the trump.
+     * @param points the array receiving the points of each set, at least as long as pkCardSets.
+     * @throws IllegalArgumentException if points is too short.
+     */
+    public static void points(long[] pkCardSets, Color trump, int[] points) {
+        checkArgument(points.length >= pkCardSets.length);
+        
+        int t = trump.ordinal() * COLOR_SIZE;
+        int o1 = ((trump.ordinal() + 1) % Color.COUNT) * COLOR_SIZE;
+        int o2 = ((trump.ordinal() + 2) % Color.COUNT) * COLOR_SIZE;
+        int o3 = ((trump.ordinal() + 3) % Color.COUNT) * COLOR_SIZE;
+        for (int i = 0; i < pkCardSets.length; i++) {
+            long s = pkCardSets[i];
+            points[i] = TRUMP_LANE_POINTS[(int) ((s >>> t) & LANE_MASK)]
+                    + LANE_POINTS[(int) ((s >>> o1) & LANE_MASK)]
+                    + LANE_POINTS[(int) ((s >>> o2) & LANE_MASK)]
+                    + LANE_POINTS[(int) ((s >>> o3) & LANE_MASK)];
+        }
+    }
+    
+    /**
+     * Checks which of the given sets contain the given card.
+     * @param pkCardSets the packed versions of sets of cards.
+     * @param pkCard the packed version of a card.
+     * @param contains the array receiving, for each set, 1 if it contains the card and 0 otherwise,
+     * at least as long as pkCardSets.
+     * @throws IllegalArgumentException if contains is too short.
+     */
+    public static void contains(long[] pkCardSets, int pkCard, byte[] contains) {
+        checkArgument(contains.length >= pkCardSets.length);
+        
+        for (int i = 0; i < pkCardSets.length; i++)
+            contains[i] = (byte) ((pkCardSets[i] >>> pkCard) & 1);
+    }
+    
+    /**
+     * Counts the given sets containing the given card.
+     * @param pkCardSets the packed versions of sets of cards.
+     * @param pkCard the packed version of a card.
+     * @return the number of sets containing the card.
+     */
+    public static int count(long[] pkCardSets, int pkCard) {
+        int count = 0;
+        for (int i = 0; i < pkCardSets.length; i++)
+            count += (int) ((pkCardSets[i] >>> pkCard) & 1);
+        return count;
+    }
+}
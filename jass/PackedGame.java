@@ -0,0 +1,142 @@
+package javass.jass;
+
+import static javass.Preconditions.checkArgument;
+
+import javass.jass.Card.Color;
+
+/**
+ * The mutable state of a turn of a game of Jass, kept as primitives: the
+ * packed versions of the hands of the players, indexed by the ordinals of
+ * the {@link PlayerId}s, and of the score, the unplayed cards and the trick.
+ * The players are trusted to play valid cards.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class PackedGame {
+    
+    private final long[] pkHands = new long[PlayerId.COUNT];
+    private long pkScore = PackedScore.INITIAL;
+    private long pkUnplayedCards = PackedCardSet.EMPTY;
+    private int pkTrick = PackedTrick.INVALID;
+    //The Zobrist hash of the turn state, updated with each card like the one of TurnState.
+    private long hash;
+    
+    /**
+     * Starts a new turn with the given hands.
+     * @param pkScore the packed version of the score at the beginning of the turn.
+     * @param trump the trump of the turn.
+     * @param firstPlayer the player playing the first card of the turn.
+     * @param pkHands the packed versions of the hands of the players, indexed by the ordinals of the {@link PlayerId}s.
+     * @throws IllegalArgumentException if the score is not valid or if pkHands is too short.
+     */
+    public void startTurn(long pkScore, Color trump, PlayerId firstPlayer, long[] pkHands) {
+        checkArgument(PackedScore.isValid(pkScore) && pkHands.length >= PlayerId.COUNT);
+        
+        System.arraycopy(pkHands, 0, this.pkHands, 0, PlayerId.COUNT);
+        this.pkScore = pkScore;
+        this.pkUnplayedCards = PackedCardSet.ALL_CARDS;
+        this.pkTrick = PackedTrick.firstEmpty(trump, firstPlayer);
+        this.hash = TurnState.hash(this.pkScore, this.pkUnplayedCards, this.pkTrick);
+    }
+    
+    /**
+     * Gives the hand of a player.
+     * @param player the player.
+     * @return the packed version of the hand of the player.
+     */
+    public long hand(PlayerId player) {
+        return pkHands[player.ordinal()];
+    }
+    
+    /**
+     * Gives the score.
+     * @return the packed version of the score.
+     */
+    public long packedScore() {
+        return pkScore;
+    }
+    
+    /**
+     * Gives the cards not played yet during the turn.
+     * @return the packed version of the set of unplayed cards.
+     */
+    public long packedUnplayedCards() {
+        return pkUnplayedCards;
+    }
+    
+    /**
+     * Gives the current trick.
+     * @return the packed version of the current trick, {@link PackedTrick#INVALID} once the turn is over.
+     */
+    public int packedTrick() {
+        return pkTrick;
+    }
+    
+    /**
+     * Gives the state of the turn, as seen by the players.
+     * @return a new turn state of the score, the unplayed cards and the trick, with the hash kept by the game.
+     */
+    public TurnState turnState() {
+        return TurnState.ofPackedComponents(pkScore, pkUnplayedCards, pkTrick, hash);
+    }
+    
+    /**
+     * Checks if the turn is over, all its tricks being collected.
+     * @return true if the turn is over.
+     */
+    public boolean isTurnOver() {
+        return pkTrick == PackedTrick.INVALID;
+    }
+    
+    /**
+     * Checks if the current trick is full.
+     * @return true if the four cards of the trick have been played.
+     */
+    public boolean isTrickFull() {
+        return PackedTrick.isFull(pkTrick);
+    }
+    
+    /**
+     * Gives the player playing the next card.
+     * @throws IllegalStateException if the trick is full.
+     * @return the player playing the next card of the trick.
+     */
+    public PlayerId nextPlayer() {
+        if (PackedTrick.isFull(pkTrick))
+            throw new IllegalStateException();
+        
+        return PackedTrick.player(pkTrick, PackedTrick.size(pkTrick));
+    }
+    
+    /**
+     * Plays a card of the next player.
+     * @param pkCard the packed version of the card played.
+     * @throws IllegalStateException if the trick is full.
+     * @return the player who played the card.
+     */
+    public PlayerId playCard(int pkCard) {
+        PlayerId player = nextPlayer();
+        
+        pkHands[player.ordinal()] = PackedCardSet.remove(pkHands[player.ordinal()], pkCard);
+        pkUnplayedCards = PackedCardSet.remove(pkUnplayedCards, pkCard);
+        hash = TurnState.hashWithCardPlayed(hash, pkTrick, pkCard);
+        pkTrick = PackedTrick.withAddedCard(pkTrick, pkCard);
+        return player;
+    }
+    
+    /**
+     * Collects the current trick, adding it to the score of its winner and starting the next one.
+     * @throws IllegalStateException if the trick is not full.
+     */
+    public void collectTrick() {
+        if (!PackedTrick.isFull(pkTrick))
+            throw new IllegalStateException();
+        
+        long newScore = PackedScore.withAdditionalTrick(pkScore, PackedTrick.winningPlayer(pkTrick).team(), PackedTrick.points(pkTrick));
+        int newTrick = PackedTrick.nextEmpty(pkTrick);
+        hash = TurnState.hashWithTrickCollected(hash, pkScore, pkTrick, newScore, newTrick);
+        pkScore = newScore;
+        pkTrick = newTrick;
+    }
+}
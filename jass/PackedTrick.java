@@ -35,8 +35,11 @@ public final class PackedTrick {
 
 	private static final int FIRST_PLAYER_SIZE = 2;
 	private static final int TRUMP_SIZE = 2;
-	private static final int CARD_SIZE = 6;
+	private static final int CARD_SIZE = PackedCard.SIZE;
 	private static final int CARD_NBR = 4;
+	//The bits following the cards, holding the index of the trick, its first player and its trump.
+	static final int HEADER_INDEX = CARD_SIZE * CARD_NBR;
+	static final int HEADER_SIZE = Integer.SIZE - HEADER_INDEX;
 
 	/**
 	 * Checks if the given {@link PackedTrick} is valid, that is that no card is not invalid while the previous cards are and that it represents a real {@link Trick}.
@@ -63,11 +66,18 @@ public final class PackedTrick {
 	 * @return an integer representing the first empty {@link Trick}.
 	 */
 	public static int firstEmpty(Color trump, PlayerId firstPlayer) {
+		return empty(trump, firstPlayer, FIRST_TRICK_INDEX);
+	}
+
+	/*
+	 * Gives the empty trick of the given index, trump and first player.
+	 */
+	static int empty(Color trump, PlayerId firstPlayer, int index) {
 		return Bits32.pack(PackedCard.INVALID, CARD_SIZE, 
 		        PackedCard.INVALID, CARD_SIZE, 
 		        PackedCard.INVALID, CARD_SIZE, 
 		        PackedCard.INVALID, CARD_SIZE,
-				FIRST_TRICK_INDEX, TRICK_INDEX_SIZE, 
+				index, TRICK_INDEX_SIZE, 
 				firstPlayer.ordinal(), FIRST_PLAYER_SIZE, 
 				trump.ordinal(), TRUMP_SIZE);
 	}
@@ -82,13 +92,7 @@ public final class PackedTrick {
 
 		return isLast(pkTrick) ?
 		        INVALID :
-		            Bits32.pack(PackedCard.INVALID, CARD_SIZE, 
-		                    PackedCard.INVALID, CARD_SIZE, 
-		                    PackedCard.INVALID, CARD_SIZE, 
-		                    PackedCard.INVALID, CARD_SIZE,
-		                    index(pkTrick) + 1, TRICK_INDEX_SIZE, 
-		                    winningPlayer(pkTrick).ordinal(), FIRST_PLAYER_SIZE, 
-		                    trump(pkTrick).ordinal(), TRUMP_SIZE);
+		            empty(trump(pkTrick), winningPlayer(pkTrick), index(pkTrick) + 1);
 	}
 
 	/**
@@ -225,49 +229,52 @@ public final class PackedTrick {
 		assert isValid(pkTrick): "Invalid trick in playableCards function of pkTrick";
 		assert PackedCardSet.isValid(pkHand): "Invalid hand in playableCards function of pkTrick";
 
+		if(isEmpty(pkTrick))
+			return pkHand;
+
+		Color trump = trump(pkTrick);
+		Color baseColor = baseColor(pkTrick);
 		long trumpsAbove = PackedCardSet.EMPTY;
-		long trumps = PackedCardSet.subsetOfColor(pkHand, trump(pkTrick));
-		long baseColorCards = PackedCardSet.subsetOfColor(pkHand, baseColor(pkTrick));
+		long trumps = PackedCardSet.subsetOfColor(pkHand, trump);
+		long baseColorCards = PackedCardSet.subsetOfColor(pkHand, baseColor);
 		long allButTrumps = PackedCardSet.difference(pkHand, trumps);
 		long jackSingleton = PackedCardSet
                 .singleton(PackedCard
-                        .pack(trump(pkTrick), Rank.JACK));
+                        .pack(trump, Rank.JACK));
 
-		boolean hasTrumpAbove = false;
 		boolean isTrump = false;
-		boolean hasNoBaseColor = PackedCardSet.isEmpty(PackedCardSet.intersection(baseColorCards, pkHand));
-		boolean hasNoTrump = PackedCardSet.isEmpty(PackedCardSet.intersection(trumps, pkHand));
+		boolean hasNoBaseColor = PackedCardSet.isEmpty(baseColorCards);
+		boolean hasNoTrump = PackedCardSet.isEmpty(trumps);
 
 		int winningCard = card(pkTrick, winningCardIndex(pkTrick));
 
-		if(isEmpty(pkTrick))
-			return pkHand;
-
 		//Computes the trump cards of the hand that are better than the current winning card and puts them in the packed card set trumpsAbove.
-		for (int i = 0; i < PackedCardSet.size(trumps); i++)
-			if(PackedCard.isBetter(trump(pkTrick), PackedCardSet.get(trumps,i), winningCard)) {
-				trumpsAbove = PackedCardSet.add(trumpsAbove, PackedCardSet.get(trumps,i));
-				hasTrumpAbove = true;
-			}
+		for (long t = trumps; t != PackedCardSet.EMPTY; t &= t - 1) {
+			int pkCard = Long.numberOfTrailingZeros(t);
+			if(PackedCard.isBetter(trump, pkCard, winningCard))
+				trumpsAbove = PackedCardSet.add(trumpsAbove, pkCard);
+		}
+		boolean hasTrumpAbove = !PackedCardSet.isEmpty(trumpsAbove);
 
 		//Checks if any player has played a trump color card and puts the result in the boolean isTrump.
-		for (int j = 0; j < size(pkTrick); j++) 
-			if(PackedCard.color(card(pkTrick, j)).equals(trump(pkTrick)))
+		int size = size(pkTrick);
+		for (int j = 0; j < size; j++) 
+			if(PackedCard.color(card(pkTrick, j)) == trump)
 				isTrump = true;
 
 		//Returns the entire hand if it contains no base color cards and no trump or if the base color is trump and the hand contains the jack of trump.
 		if(((!isTrump || hasNoTrump) && hasNoBaseColor) || 
-		        (baseColor(pkTrick).equals(trump(pkTrick)) 
+		        (baseColor == trump 
 		                && PackedCardSet.isEmpty(PackedCardSet.difference(trumps, jackSingleton))))
 			return pkHand;
 
-		if(baseColor(pkTrick) != trump(pkTrick))
+		if(baseColor != trump)
 			if(hasNoBaseColor && !PackedCardSet.isEmpty(allButTrumps))
 				return PackedCardSet.union(allButTrumps, trumpsAbove);
 			else if(!hasNoBaseColor)
 				return PackedCardSet.union(baseColorCards, trumpsAbove);  
 
-		if((baseColor(pkTrick).equals(trump(pkTrick))) || 
+		if((baseColor == trump) || 
 		        (hasNoBaseColor && !hasTrumpAbove && PackedCardSet.isEmpty(allButTrumps)))
 			return trumps;
 
@@ -289,10 +296,11 @@ public final class PackedTrick {
 		assert isValid(pkTrick): "Invalid trick in points function of pkTrick";
 
 		int pts = 0;
+		Color trump = trump(pkTrick);
 		
 		for (int i = 0; i < CARD_NBR; i++)
 		    if(card(pkTrick, i) != PackedCard.INVALID)
-	            pts += PackedCard.points(trump(pkTrick), card(pkTrick, i));
+	            pts += PackedCard.points(trump, card(pkTrick, i));
 
 		if(isLast(pkTrick))
 			pts += Jass.LAST_TRICK_ADDITIONAL_POINTS;
@@ -339,10 +347,12 @@ public final class PackedTrick {
 		assert isValid(pkTrick): "Invalid trick in winningCardIndex function of pkTrick";
 
 		int winningCardIndex = 0;
+		int size = size(pkTrick);
+		Color trump = trump(pkTrick);
 
 		//Compares all the cards of the trick to find the index of the one better that all the others.
-		for(int i=0 ; i < size(pkTrick)-1 ; ++i)
-			if(PackedCard.isBetter(trump(pkTrick), card(pkTrick, i+1), card(pkTrick, winningCardIndex))) 
+		for(int i=0 ; i < size-1 ; ++i)
+			if(PackedCard.isBetter(trump, card(pkTrick, i+1), card(pkTrick, winningCardIndex))) 
 				winningCardIndex = (i+1);
 			
 		return winningCardIndex;
@@ -0,0 +1,35 @@
+package javass.jass;
+
+import java.util.SplittableRandom;
+
+/**
+ * A policy choosing the cards played by the searching player during the playouts of a {@link MctsPlayer}.
+ * The other players keep playing randomly: their playable cards are all the unplayed cards
+ * the searching player does not hold, which would make a greedy policy omniscient.
+ * A {@link GameSimulator} also plays whole games with one policy per seat.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public interface PlayoutPolicy {
+    
+    /**
+     * A policy playing a card chosen uniformly among the playable ones.
+     */
+    PlayoutPolicy RANDOM = (pkTrick, pkPlayableCards, rng) -> PackedCardSet
+            .get(pkPlayableCards, rng.nextInt(PackedCardSet.size(pkPlayableCards)));
+    
+    /**
+     * A policy playing like a cautious human would, see {@link HeuristicPlayoutPolicy}.
+     */
+    PlayoutPolicy HEURISTIC = new HeuristicPlayoutPolicy(HeuristicPlayoutPolicy.DEFAULT_RANDOMNESS);
+    
+    /**
+     * Chooses the card to play in a playout, must not allocate any object.
+     * @param pkTrick the packed version of the current trick, not full.
+     * @param pkPlayableCards the packed version of the set of playable cards, not empty.
+     * @param rng the pseudo-random number generator of the playout.
+     * @return the packed version of a card of pkPlayableCards.
+     */
+    int cardToPlay(int pkTrick, long pkPlayableCards, SplittableRandom rng);
+}
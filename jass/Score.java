@@ -20,8 +20,14 @@ public final class Score {
      */
     public static Score ofPacked(long packed) {
         checkArgument(PackedScore.isValid(packed));
-        Score s = new Score(packed);
-        return s;
+        return of(packed);
+    }
+    
+    /*
+     * Gives the score of the given valid packed version, reusing INITIAL when possible.
+     */
+    private static Score of(long packed) {
+        return packed == PackedScore.INITIAL ? INITIAL : new Score(packed);
     }
     
     private final long packed;
@@ -84,7 +90,7 @@ public final class Score {
     public Score withAdditionalTrick(TeamId winningTeam, int trickPoints) {
         checkArgument(trickPoints>=0);
         
-        return new Score(PackedScore.withAdditionalTrick(packed, winningTeam, trickPoints));
+        return of(PackedScore.withAdditionalTrick(packed, winningTeam, trickPoints));
     }
     
     /**
@@ -92,12 +98,13 @@ public final class Score {
      * @return the updated scores for the next turn
      */
     public Score nextTurn() {
-        return new Score(PackedScore.nextTurn(packed));
+        return of(PackedScore.nextTurn(packed));
     }
     
     @Override
     public boolean equals(Object that0) {
-        return that0 != null 
+        return that0 == this
+                || that0 != null 
                 && that0.getClass() == this.getClass() 
                 && this.packed() == ((Score)that0).packed();
     }
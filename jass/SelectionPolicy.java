@@ -0,0 +1,26 @@
+package javass.jass;
+
+/**
+ * The formulas a {@link MctsPlayer} may use to select the child to explore in its tree.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public enum SelectionPolicy {
+    /**
+     * UCB1 on the raw points of the playouts, with a fixed exploration constant.
+     */
+    UCB1,
+    /**
+     * UCB1-tuned on the turn points normalized between 0 and 1, bounding the
+     * exploration of each child by the variance of its rewards.
+     */
+    UCB1_TUNED,
+    /**
+     * UCB1 on the normalized turn points, blended with the all-moves-as-first
+     * statistics of the cards: a card played later in a playout by the same
+     * player counts as a visit of the child playing it first, until the child
+     * has enough visits of its own.
+     */
+    RAVE;
+}
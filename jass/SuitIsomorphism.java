@@ -0,0 +1,154 @@
+package javass.jass;
+
+import javass.jass.Card.Color;
+
+/**
+ * The canonical forms of packed sets of cards, cards and tricks up to a
+ * permutation of the colors. The trump is moved to the first color and the
+ * other colors are sorted by their cards, so that states differing only by
+ * their non-trump colors share one canonical form. As each color of a
+ * packed set is a lane of 16 bits, a permutation is applied to a set by
+ * moving its lanes.
+ * <p>
+ * A permutation is packed in an int: its bits 2i and 2i+1 give the ordinal
+ * of the color moved to the color of ordinal i.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class SuitIsomorphism {
+    private SuitIsomorphism() {}
+    
+    /**
+     * The permutation leaving every color in place.
+     */
+    public static final int IDENTITY = 0b11_10_01_00;
+    
+    private static final int COLOR_SIZE = PackedCardSet.COLOR_SIZE;
+    private static final long COLOR_MASK = (1L << COLOR_SIZE) - 1;
+    private static final int PERMUTATION_BITS = 2;
+    private static final int COLOR_MASK_BITS = (1 << PERMUTATION_BITS) - 1;
+    
+    /**
+     * Gives the canonical permutation of a set of cards: the trump first, then the other colors sorted
+     * by decreasing cards.
+     * @param trump the trump.
+     * @param pkCardSet the packed version of a set of cards.
+     * @return the packed canonical permutation.
+     */
+    public static int canonicalPermutation(Color trump, long pkCardSet) {
+        return canonicalPermutation(trump, pkCardSet, PackedCardSet.EMPTY, PackedTrick.firstEmpty(trump, PlayerId.PLAYER_1));
+    }
+    
+    /**
+     * Gives the canonical permutation of a hand in a state: the trump first, then the other colors sorted
+     * by decreasing cards of the hand, then of the unplayed cards, then of the trick.
+     * @param trump the trump.
+     * @param pkHand the packed version of a hand.
+     * @param pkUnplayedCards the packed version of the set of unplayed cards.
+     * @param pkTrick the packed version of the current trick.
+     * @return the packed canonical permutation.
+     */
+    public static int canonicalPermutation(Color trump, long pkHand, long pkUnplayedCards, int pkTrick) {
+        long pkTrickCards = PackedCardSet.EMPTY;
+        for (int i = 0; i < PackedTrick.size(pkTrick); i++)
+            pkTrickCards = PackedCardSet.add(pkTrickCards, PackedTrick.card(pkTrick, i));
+        
+        int t = trump.ordinal();
+        long a = sortKey(pkHand, pkUnplayedCards, pkTrickCards, (t + 1) & COLOR_MASK_BITS);
+        long b = sortKey(pkHand, pkUnplayedCards, pkTrickCards, (t + 2) & COLOR_MASK_BITS);
+        long c = sortKey(pkHand, pkUnplayedCards, pkTrickCards, (t + 3) & COLOR_MASK_BITS);
+        //Sorts the three other colors by decreasing keys, the keys being distinct.
+        long first = Math.max(Math.max(a, b), c);
+        long last = Math.min(Math.min(a, b), c);
+        long second = a ^ b ^ c ^ first ^ last;
+        
+        return t | sortedColor(first) << PERMUTATION_BITS 
+                | sortedColor(second) << (2 * PERMUTATION_BITS) 
+                | sortedColor(last) << (3 * PERMUTATION_BITS);
+    }
+    
+    /**
+     * Gives the inverse of a permutation.
+     * @param permutation a packed permutation.
+     * @return the packed permutation moving back the colors moved by the given one.
+     */
+    public static int inverse(int permutation) {
+        int inverse = 0;
+        for (int i = 0; i < Color.COUNT; i++)
+            inverse |= i << (color(permutation, i) * PERMUTATION_BITS);
+        return inverse;
+    }
+    
+    /**
+     * Gives the ordinal of the color a permutation moves to the given color.
+     * @param permutation a packed permutation.
+     * @param color the ordinal of a color.
+     * @return the ordinal of the color moved to the given one.
+     */
+    public static int color(int permutation, int color) {
+        return (permutation >>> (color * PERMUTATION_BITS)) & ((1 << PERMUTATION_BITS) - 1);
+    }
+    
+    /**
+     * Applies a permutation to a set of cards, moving its lanes.
+     * @param pkCardSet the packed version of a set of cards.
+     * @param permutation a packed permutation.
+     * @return the packed version of the set whose color of ordinal i holds the cards of the color moved to it.
+     */
+    public static long apply(long pkCardSet, int permutation) {
+        long result = 0;
+        for (int i = 0; i < Color.COUNT; i++)
+            result |= lane(pkCardSet, color(permutation, i)) << (i * COLOR_SIZE);
+        return result;
+    }
+    
+    /**
+     * Applies a permutation to a card.
+     * @param pkCard the packed version of a card.
+     * @param permutation a packed permutation.
+     * @return the packed version of the card of the same rank in the color its color is moved to.
+     */
+    public static int applyToCard(int pkCard, int permutation) {
+        int color = color(inverse(permutation), PackedCard.color(pkCard).ordinal());
+        return PackedCard.pack(Color.ALL.get(color), PackedCard.rank(pkCard));
+    }
+    
+    /**
+     * Applies a permutation to a trick: to its cards and its trump.
+     * @param pkTrick the packed version of a trick.
+     * @param permutation a packed permutation.
+     * @return the packed version of the trick with the colors moved.
+     */
+    public static int applyToTrick(int pkTrick, int permutation) {
+        int inverse = inverse(permutation);
+        Color trump = Color.ALL.get(color(inverse, PackedTrick.trump(pkTrick).ordinal()));
+        int result = PackedTrick.empty(trump, PackedTrick.player(pkTrick, 0), PackedTrick.index(pkTrick));
+        for (int i = 0; i < PackedTrick.size(pkTrick); i++)
+            result = PackedTrick.withAddedCard(result, applyToCard(PackedTrick.card(pkTrick, i), permutation));
+        return result;
+    }
+    
+    /*
+     * Returns the key sorting a color: its cards in the hand, then in the unplayed cards, then in the trick,
+     * then its reversed ordinal so that colors of equal cards keep their order.
+     */
+    private static long sortKey(long pkHand, long pkUnplayedCards, long pkTrickCards, int color) {
+        long cards = lane(pkHand, color) << (2 * COLOR_SIZE) | lane(pkUnplayedCards, color) << COLOR_SIZE | lane(pkTrickCards, color);
+        return cards << PERMUTATION_BITS | (COLOR_MASK_BITS - color);
+    }
+    
+    /*
+     * Returns the ordinal of the color of a sorting key.
+     */
+    private static int sortedColor(long key) {
+        return COLOR_MASK_BITS - (int) (key & COLOR_MASK_BITS);
+    }
+    
+    /*
+     * Returns the cards of the given color ordinal of a packed set, in the lowest bits.
+     */
+    private static long lane(long pkCardSet, int color) {
+        return (pkCardSet >>> (color * COLOR_SIZE)) & COLOR_MASK;
+    }
+}
@@ -24,7 +24,7 @@ public final class Trick {
      * @return a new empty trick.
      */
     public static Trick firstEmpty(Color trump, PlayerId firstPlayer) {
-        return new Trick(PackedTrick.firstEmpty(trump, firstPlayer));
+        return of(PackedTrick.firstEmpty(trump, firstPlayer));
     }
 
     /**
@@ -36,7 +36,33 @@ public final class Trick {
     public static Trick ofPacked(int packed) {
         checkArgument(PackedTrick.isValid(packed));
 
-        return new Trick(packed);
+        return of(packed);
+    }
+
+    //The canonical instances of all the empty tricks, indexed by emptyIndex.
+    private static final Trick[] EMPTY_TRICKS = new Trick[Jass.TRICKS_PER_TURN * PlayerId.COUNT * Color.COUNT];
+    static {
+        for (int i = 0; i < Jass.TRICKS_PER_TURN; i++)
+            for (PlayerId p : PlayerId.ALL)
+                for (Color c : Color.ALL) {
+                    int pkTrick = PackedTrick.empty(c, p, i);
+                    EMPTY_TRICKS[emptyIndex(pkTrick)] = new Trick(pkTrick);
+                }
+    }
+
+    /*
+     * Gives the trick of the given valid packed version, reusing the canonical instance if it is empty.
+     */
+    private static Trick of(int packed) {
+        return PackedTrick.isEmpty(packed) ?
+                EMPTY_TRICKS[emptyIndex(packed)] :
+                    new Trick(packed);
+    }
+
+    private static int emptyIndex(int pkTrick) {
+        return (PackedTrick.index(pkTrick) * PlayerId.COUNT
+                + PackedTrick.player(pkTrick, 0).ordinal()) * Color.COUNT
+                + PackedTrick.trump(pkTrick).ordinal();
     }
 
 	private final int packed;
@@ -63,7 +89,9 @@ public final class Trick {
 		if (!isFull())
 			throw new IllegalStateException();
 
-		return new Trick(PackedTrick.nextEmpty(packed));
+		int next = PackedTrick.nextEmpty(packed);
+
+		return next == PackedTrick.INVALID ? INVALID : of(next);
 	}
 
 	/**
@@ -195,7 +223,8 @@ public final class Trick {
 
 	@Override
 	public boolean equals(Object that0) {
-		return that0 != null && that0.getClass() == this.getClass()
+		return that0 == this
+		        || that0 != null && that0.getClass() == this.getClass()
 				&& this.packed() == ((Trick) that0).packed();
 	}
 
@@ -1,5 +1,8 @@
 package javass.jass;
 
+import java.util.SplittableRandom;
+
+import javass.bits.Bits32;
 import javass.jass.Card.Color;
 
 import static javass.Preconditions.*;
@@ -23,7 +26,7 @@ public final class TurnState {
         long aS = score.packed();
         long uC = PackedCardSet.ALL_CARDS;
         int aT = PackedTrick.firstEmpty(trump, firstPlayer);
-        return new TurnState(aS, uC, aT);
+        return new TurnState(aS, uC, aT, hash(aS, uC, aT));
     }
     
     /**
@@ -35,19 +38,46 @@ public final class TurnState {
      * @return the new turn state with the new score, set of unplayed cards and trick.
      */
     public static TurnState ofPackedComponents(long pkScore, long pkUnplayedCards, int pkTrick) {
+        return ofPackedComponents(pkScore, pkUnplayedCards, pkTrick, hash(pkScore, pkUnplayedCards, pkTrick));
+    }
+    
+    /*
+     * Creates a turn state of the given packed components whose hash is already known.
+     */
+    static TurnState ofPackedComponents(long pkScore, long pkUnplayedCards, int pkTrick, long hash) {
         checkArgument(PackedScore.isValid(pkScore) && PackedCardSet.isValid(pkUnplayedCards) && PackedTrick.isValid(pkTrick));
-                
-        return new TurnState(pkScore, pkUnplayedCards, pkTrick);
+        
+        return new TurnState(pkScore, pkUnplayedCards, pkTrick, hash);
+    }
+    
+    private static final long ZOBRIST_SEED = 0x4A617373L;
+    
+    //The Zobrist keys of the unplayed cards, of the cards in each slot of the trick and of the other bits of the trick.
+    private static final long[] UNPLAYED_KEYS = new long[PackedCard.INVALID + 1];
+    private static final long[][] TRICK_CARD_KEYS = new long[PlayerId.COUNT][PackedCard.INVALID + 1];
+    private static final long[] TRICK_HEADER_KEYS = new long[1 << PackedTrick.HEADER_SIZE];
+    static {
+        SplittableRandom rng = new SplittableRandom(ZOBRIST_SEED);
+        //The keys of PackedCard.INVALID stay 0, so that an empty slot of the trick contributes nothing to the hash.
+        for (int c = 0; c < PackedCard.INVALID; c++) {
+            UNPLAYED_KEYS[c] = rng.nextLong();
+            for (int i = 0; i < PlayerId.COUNT; i++)
+                TRICK_CARD_KEYS[i][c] = rng.nextLong();
+        }
+        for (int i = 0; i < TRICK_HEADER_KEYS.length; i++)
+            TRICK_HEADER_KEYS[i] = rng.nextLong();
     }
 
     private final long currentScore;
     private final long unplayedCards;
     private final int currentTrick;
+    private final long hash;
     
-    private TurnState(long aS, long uC, int aT){        
+    private TurnState(long aS, long uC, int aT, long hash){        
         currentScore = aS;
         unplayedCards = uC;
         currentTrick = aT;
+        this.hash = hash;
     }
     
     /**
@@ -74,6 +104,15 @@ public final class TurnState {
         return currentTrick;
     }
     
+    /**
+     * Gets the 64-bit Zobrist hash of the turn state, maintained incrementally as cards are played
+     * and tricks collected, and usable as the key of a transposition table.
+     * @return a long the hash of the score, the set of unplayed cards and the trick of the turn.
+     */
+    public long hash() {
+        return hash;
+    }
+    
     /**
      * Gets the current score of the turn.
      * @return the score of the turn.
@@ -128,7 +167,9 @@ public final class TurnState {
         if(trick().isFull() && unplayedCards().contains(card))
             throw new IllegalStateException();
         
-        return ofPackedComponents(currentScore, PackedCardSet.remove(unplayedCards, card.packed()), PackedTrick.withAddedCard(currentTrick, card.packed()));
+        int pkCard = card.packed();
+        return ofPackedComponents(currentScore, PackedCardSet.remove(unplayedCards, pkCard), PackedTrick.withAddedCard(currentTrick, pkCard),
+                hashWithCardPlayed(hash, currentTrick, pkCard));
     }
     
     /**
@@ -140,10 +181,10 @@ public final class TurnState {
         if(!trick().isFull())
             throw new IllegalStateException();
         
-        return new TurnState(
-                PackedScore.withAdditionalTrick(currentScore, PackedTrick.winningPlayer(currentTrick).team(), PackedTrick.points(currentTrick)),
-                unplayedCards,
-                PackedTrick.nextEmpty(currentTrick));
+        long newScore = PackedScore.withAdditionalTrick(currentScore, PackedTrick.winningPlayer(currentTrick).team(), PackedTrick.points(currentTrick));
+        int newTrick = PackedTrick.nextEmpty(currentTrick);
+        
+        return new TurnState(newScore, unplayedCards, newTrick, hashWithTrickCollected(hash, currentScore, currentTrick, newScore, newTrick));
     }
     
     /**
@@ -159,4 +200,69 @@ public final class TurnState {
         
         return t;
     }
+    
+    @Override
+    public boolean equals(Object that0) {
+        if (that0 == this)
+            return true;
+        if (that0 == null || that0.getClass() != this.getClass())
+            return false;
+        
+        TurnState that = (TurnState) that0;
+        return this.hash == that.hash
+                && this.currentScore == that.currentScore
+                && this.unplayedCards == that.unplayedCards
+                && this.currentTrick == that.currentTrick;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+    
+    /*
+     * Computes the whole Zobrist hash of the given packed components.
+     */
+    static long hash(long pkScore, long pkUnplayedCards, int pkTrick) {
+        long h = scoreHash(pkScore) ^ trickHash(pkTrick);
+        for (long set = pkUnplayedCards; set != PackedCardSet.EMPTY; set &= set - 1)
+            h ^= UNPLAYED_KEYS[Long.numberOfTrailingZeros(set)];
+        return h;
+    }
+    
+    /*
+     * Updates the hash of a state whose trick is the given one when the given card is played.
+     */
+    static long hashWithCardPlayed(long hash, int pkTrick, int pkCard) {
+        return hash ^ UNPLAYED_KEYS[pkCard] ^ TRICK_CARD_KEYS[PackedTrick.size(pkTrick)][pkCard];
+    }
+    
+    /*
+     * Updates the hash of a state when its trick is collected, its score and trick becoming the new ones.
+     */
+    static long hashWithTrickCollected(long hash, long pkScore, int pkTrick, long newScore, int newTrick) {
+        return hash ^ scoreHash(pkScore) ^ scoreHash(newScore) ^ trickHash(pkTrick) ^ trickHash(newTrick);
+    }
+    
+    /*
+     * Hashes a packed trick, possibly PackedTrick.INVALID, from its card slots and its other bits.
+     */
+    private static long trickHash(int pkTrick) {
+        long h = TRICK_HEADER_KEYS[Bits32.extract(pkTrick, PackedTrick.HEADER_INDEX, PackedTrick.HEADER_SIZE)];
+        for (int i = 0; i < PlayerId.COUNT; i++) {
+            int pkCard = Bits32.extract(pkTrick, i * PackedCard.SIZE, PackedCard.SIZE);
+            h ^= TRICK_CARD_KEYS[i][pkCard];
+        }
+        return h;
+    }
+    
+    /*
+     * Hashes a packed score with the finalizer of SplitMix64, the score having too many values for a table of keys.
+     */
+    private static long scoreHash(long pkScore) {
+        long z = pkScore + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
 }
@@ -0,0 +1,154 @@
+package javass.metrics;
+
+import static javass.Preconditions.checkIndex;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+import javass.jass.Jass;
+import javass.jass.PlayerId;
+
+/**
+ * The metrics of one or several games of Jass: the number of games, turns,
+ * tricks and cards played, and histograms of the time each player took to
+ * choose its cards, for each player and for each trick of a turn. The
+ * metrics are not thread safe, each game recording in its own ones.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class GameMetrics {
+    
+    private final LatencyHistogram[] playerLatencies = new LatencyHistogram[PlayerId.COUNT];
+    private final LatencyHistogram[] trickLatencies = new LatencyHistogram[Jass.TRICKS_PER_TURN];
+    private long games;
+    private long turns;
+    private long tricks;
+    private long cards;
+    
+    /**
+     * Creates empty metrics.
+     */
+    public GameMetrics() {
+        for (int i = 0; i < playerLatencies.length; i++)
+            playerLatencies[i] = new LatencyHistogram();
+        for (int i = 0; i < trickLatencies.length; i++)
+            trickLatencies[i] = new LatencyHistogram();
+    }
+    
+    /**
+     * Records a card played.
+     * @param player the player of the card.
+     * @param trickIndex the index in the turn of the trick the card was played in.
+     * @param nanos the time the player took to choose the card, in nanoseconds.
+     * @throws IndexOutOfBoundsException if trickIndex is not the one of a trick of a turn.
+     */
+    public void cardPlayed(PlayerId player, int trickIndex, long nanos) {
+        playerLatencies[player.ordinal()].record(nanos);
+        trickLatencies[checkIndex(trickIndex, trickLatencies.length)].record(nanos);
+        cards++;
+    }
+    
+    /**
+     * Records a trick collected.
+     */
+    public void trickCollected() {
+        tricks++;
+    }
+    
+    /**
+     * Records a new turn.
+     */
+    public void turnStarted() {
+        turns++;
+    }
+    
+    /**
+     * Records the end of a game.
+     */
+    public void gameOver() {
+        games++;
+    }
+    
+    /**
+     * Gives the number of games over.
+     * @return the number of games recorded.
+     */
+    public long games() {
+        return games;
+    }
+    
+    /**
+     * Gives the number of turns started.
+     * @return the number of turns recorded.
+     */
+    public long turns() {
+        return turns;
+    }
+    
+    /**
+     * Gives the number of tricks collected.
+     * @return the number of tricks recorded.
+     */
+    public long tricks() {
+        return tricks;
+    }
+    
+    /**
+     * Gives the number of cards played.
+     * @return the number of cards recorded.
+     */
+    public long cards() {
+        return cards;
+    }
+    
+    /**
+     * Gives the histogram of the time a player took to choose its cards.
+     * @param player a player.
+     * @return the histogram of the player, not a copy.
+     */
+    public LatencyHistogram latency(PlayerId player) {
+        return playerLatencies[player.ordinal()];
+    }
+    
+    /**
+     * Gives the histogram of the time the players took to choose the cards of one trick of the turns.
+     * @param trickIndex the index of a trick in a turn.
+     * @throws IndexOutOfBoundsException if trickIndex is not the one of a trick of a turn.
+     * @return the histogram of the trick, not a copy.
+     */
+    public LatencyHistogram latency(int trickIndex) {
+        return trickLatencies[checkIndex(trickIndex, trickLatencies.length)];
+    }
+    
+    /**
+     * Gives the metrics in JSON, the durations in nanoseconds.
+     * @return a JSON object.
+     */
+    public String toJson() {
+        StringJoiner players = new StringJoiner(",", "{", "}");
+        for (PlayerId p : PlayerId.ALL)
+            players.add("\"" + p.name() + "\":" + latency(p).toJson());
+        StringJoiner tricks = new StringJoiner(",", "[", "]");
+        for (LatencyHistogram h : trickLatencies)
+            tricks.add(h.toJson());
+        
+        return String.format(Locale.ROOT, "{\"games\":%d,\"turns\":%d,\"tricks\":%d,\"cards\":%d,\"playerLatency\":%s,\"trickLatency\":%s}",
+                games, turns, this.tricks, cards, players, tricks);
+    }
+    
+    /**
+     * Gives the metrics in text, one per line, the durations in milliseconds.
+     * @return a text of several lines.
+     */
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append(String.format("games %d, turns %d, tricks %d, cards %d", games, turns, tricks, cards));
+        for (PlayerId p : PlayerId.ALL)
+            b.append(System.lineSeparator()).append(p.name()).append(' ').append(latency(p));
+        for (int i = 0; i < trickLatencies.length; i++)
+            b.append(System.lineSeparator()).append("trick ").append(i).append(' ').append(trickLatencies[i]);
+        return b.toString();
+    }
+}
@@ -0,0 +1,166 @@
+package javass.metrics;
+
+import static javass.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A histogram of durations in nanoseconds with logarithmic buckets, in the
+ * manner of an HDR histogram: each power of two is divided in 16 buckets, so
+ * that any recorded value is known within about 6%. Recording a value takes a
+ * few bit operations and never allocates. A histogram is not thread safe, each
+ * thread recording in its own one, merged afterwards.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class LatencyHistogram {
+    
+    /**
+     * The largest duration kept exactly, about 18 minutes: longer durations are counted as this one.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+    
+    //The first 2 * HALF_BUCKETS buckets hold one value each, then each power of two has HALF_BUCKETS buckets.
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int HALF_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int BUCKET_COUNT = index(MAX_VALUE) + 1;
+    
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    
+    /**
+     * Records one duration.
+     * @param nanos a duration in nanoseconds.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public void record(long nanos) {
+        checkArgument(nanos >= 0);
+        
+        long v = Math.min(nanos, MAX_VALUE);
+        counts[index(v)]++;
+        count++;
+        sum += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+    
+    /**
+     * Adds the durations recorded by another histogram to this one.
+     * @param that another histogram.
+     */
+    public void add(LatencyHistogram that) {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            counts[i] += that.counts[i];
+        count += that.count;
+        sum += that.sum;
+        min = Math.min(min, that.min);
+        max = Math.max(max, that.max);
+    }
+    
+    /**
+     * Forgets all the recorded durations.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+    
+    /**
+     * Gives the number of recorded durations.
+     * @return the number of recorded durations.
+     */
+    public long count() {
+        return count;
+    }
+    
+    /**
+     * Gives the shortest recorded duration.
+     * @return the shortest duration in nanoseconds, 0 if none was recorded.
+     */
+    public long min() {
+        return count == 0 ? 0 : min;
+    }
+    
+    /**
+     * Gives the longest recorded duration.
+     * @return the longest duration in nanoseconds, 0 if none was recorded.
+     */
+    public long max() {
+        return max;
+    }
+    
+    /**
+     * Gives the mean of the recorded durations.
+     * @return the mean duration in nanoseconds, 0 if none was recorded.
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+    
+    /**
+     * Gives the duration below which the given percentage of the recorded durations lie.
+     * @param percentile a percentage between 0 and 100.
+     * @throws IllegalArgumentException if the percentage is not between 0 and 100.
+     * @return the largest duration of the bucket reaching the percentile, in nanoseconds, 
+     * at most the longest recorded duration, 0 if none was recorded.
+     */
+    public long percentile(double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100);
+        if (count == 0)
+            return 0;
+        
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.max(min, Math.min(max, highestValue(i)));
+        }
+        return max;
+    }
+    
+    /**
+     * Gives the count, the mean, the extremes and the usual percentiles of the durations in JSON.
+     * @return a JSON object whose values are in nanoseconds.
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT, "{\"count\":%d,\"min\":%d,\"mean\":%.0f,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}",
+                count, min(), mean(), percentile(50), percentile(90), percentile(99), percentile(99.9), max);
+    }
+    
+    /**
+     * Gives the count, the mean, the extremes and the usual percentiles of the durations in milliseconds.
+     * @return a line of text.
+     */
+    @Override
+    public String toString() {
+        return String.format("n=%d min=%.3f mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f ms",
+                count, min() / 1e6, mean() / 1e6, percentile(50) / 1e6, percentile(90) / 1e6,
+                percentile(99) / 1e6, percentile(99.9) / 1e6, max / 1e6);
+    }
+    
+    /*
+     * Returns the index of the bucket of the given value, at most MAX_VALUE.
+     */
+    private static int index(long v) {
+        int exponent = Math.max(0, Long.SIZE - SUB_BUCKET_BITS - Long.numberOfLeadingZeros(v));
+        return exponent * HALF_BUCKETS + (int) (v >>> exponent);
+    }
+    
+    /*
+     * Returns the largest value of the bucket of the given index.
+     */
+    private static long highestValue(int index) {
+        int exponent = Math.max(0, index / HALF_BUCKETS - 1);
+        long subBucket = index - exponent * HALF_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
@@ -0,0 +1,243 @@
+package javass.metrics;
+
+import static javass.Preconditions.checkIndex;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+import javass.jass.Jass;
+import javass.jass.PackedCard;
+
+/**
+ * The metrics of the searches of a Monte Carlo player: the number of
+ * searches, of iterations and of nodes of their trees, the depth of these
+ * trees, the confidence of the picks and histograms of the time taken by a
+ * search, overall and for each trick of a turn, as well as the number of
+ * cards played from an opening book without searching. The last search is also kept,
+ * with the visits of each card at the root of its tree. The metrics are not
+ * thread safe, each player recording in its own ones.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class SearchMetrics {
+    
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram[] trickLatencies = new LatencyHistogram[Jass.TRICKS_PER_TURN];
+    private long searches;
+    private long iterations;
+    private long nanos;
+    private long treeNodes;
+    private long treeDepths;
+    private int maxTreeDepth;
+    private double confidences;
+    private long bookHits;
+    
+    private long lastNanos;
+    private int lastIterations;
+    private int lastTreeSize;
+    private int lastTreeDepth;
+    private int lastCard = PackedCard.INVALID;
+    private double lastConfidence;
+    private final int[] lastRootVisits = new int[PackedCard.INVALID + 1];
+    
+    /**
+     * Creates empty metrics.
+     */
+    public SearchMetrics() {
+        for (int i = 0; i < trickLatencies.length; i++)
+            trickLatencies[i] = new LatencyHistogram();
+    }
+    
+    /**
+     * Records a search.
+     * @param trickIndex the index in the turn of the trick the search played in.
+     * @param nanos the duration of the search in nanoseconds.
+     * @param iterations the number of iterations of the search.
+     * @param treeSize the number of nodes of the tree.
+     * @param treeDepth the length of the longest path from the root of the tree.
+     * @param pkCard the packed version of the card picked.
+     * @param confidence the share of the iterations given to the card picked, between 0 and 1.
+     * @param rootVisits the number of visits of each card at the root, indexed by packed card.
+     * @throws IndexOutOfBoundsException if trickIndex is not the one of a trick of a turn.
+     */
+    public void record(int trickIndex, long nanos, int iterations, int treeSize, int treeDepth, int pkCard, double confidence, int[] rootVisits) {
+        trickLatencies[checkIndex(trickIndex, trickLatencies.length)].record(nanos);
+        latency.record(nanos);
+        searches++;
+        this.iterations += iterations;
+        this.nanos += nanos;
+        treeNodes += treeSize;
+        treeDepths += treeDepth;
+        maxTreeDepth = Math.max(maxTreeDepth, treeDepth);
+        confidences += confidence;
+        
+        lastNanos = nanos;
+        lastIterations = iterations;
+        lastTreeSize = treeSize;
+        lastTreeDepth = treeDepth;
+        lastCard = pkCard;
+        lastConfidence = confidence;
+        System.arraycopy(rootVisits, 0, lastRootVisits, 0, lastRootVisits.length);
+    }
+    
+    /**
+     * Records a card played from an opening book, without searching.
+     */
+    public void recordBookHit() {
+        bookHits++;
+    }
+    
+    /**
+     * Gives the number of cards played from an opening book.
+     * @return the number of book hits recorded.
+     */
+    public long bookHits() {
+        return bookHits;
+    }
+    
+    /**
+     * Gives the number of searches.
+     * @return the number of searches recorded.
+     */
+    public long searches() {
+        return searches;
+    }
+    
+    /**
+     * Gives the total number of iterations, that is of playouts.
+     * @return the number of iterations of all the searches.
+     */
+    public long iterations() {
+        return iterations;
+    }
+    
+    /**
+     * Gives the number of playouts per second of the searches.
+     * @return the number of iterations divided by the time spent searching, 0 if there was no search.
+     */
+    public double playoutsPerSecond() {
+        return nanos == 0 ? 0 : iterations * 1e9 / nanos;
+    }
+    
+    /**
+     * Gives the mean number of nodes of the trees.
+     * @return the mean size of the trees, 0 if there was no search.
+     */
+    public double meanTreeSize() {
+        return searches == 0 ? 0 : (double) treeNodes / searches;
+    }
+    
+    /**
+     * Gives the mean depth of the trees.
+     * @return the mean depth of the trees, 0 if there was no search.
+     */
+    public double meanTreeDepth() {
+        return searches == 0 ? 0 : (double) treeDepths / searches;
+    }
+    
+    /**
+     * Gives the depth of the deepest tree.
+     * @return the largest depth of a tree.
+     */
+    public int maxTreeDepth() {
+        return maxTreeDepth;
+    }
+    
+    /**
+     * Gives the mean confidence of the picks, the share of the iterations given to the card picked.
+     * @return the mean confidence, between 0 and 1, 0 if there was no search.
+     */
+    public double meanConfidence() {
+        return searches == 0 ? 0 : confidences / searches;
+    }
+    
+    /**
+     * Gives the histogram of the durations of the searches.
+     * @return the histogram of all the searches, not a copy.
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+    
+    /**
+     * Gives the histogram of the durations of the searches of one trick of the turns.
+     * @param trickIndex the index of a trick in a turn.
+     * @throws IndexOutOfBoundsException if trickIndex is not the one of a trick of a turn.
+     * @return the histogram of the searches of the trick, not a copy.
+     */
+    public LatencyHistogram latency(int trickIndex) {
+        return trickLatencies[checkIndex(trickIndex, trickLatencies.length)];
+    }
+    
+    /**
+     * Forgets all the recorded searches.
+     */
+    public void reset() {
+        latency.reset();
+        for (LatencyHistogram h : trickLatencies)
+            h.reset();
+        searches = iterations = nanos = treeNodes = treeDepths = bookHits = 0;
+        maxTreeDepth = 0;
+        confidences = 0;
+        lastNanos = 0;
+        lastIterations = lastTreeSize = lastTreeDepth = 0;
+        lastCard = PackedCard.INVALID;
+        lastConfidence = 0;
+        Arrays.fill(lastRootVisits, 0);
+    }
+    
+    /**
+     * Gives the metrics in JSON, the durations in nanoseconds.
+     * @return a JSON object.
+     */
+    public String toJson() {
+        StringJoiner tricks = new StringJoiner(",", "[", "]");
+        for (LatencyHistogram h : trickLatencies)
+            tricks.add(h.toJson());
+        
+        return String.format(Locale.ROOT, "{\"searches\":%d,\"bookHits\":%d,\"iterations\":%d,\"playoutsPerSecond\":%.1f,\"meanTreeSize\":%.1f,"
+                + "\"meanTreeDepth\":%.2f,\"maxTreeDepth\":%d,\"meanConfidence\":%.4f,\"latency\":%s,\"trickLatency\":%s,"
+                + "\"last\":{\"nanos\":%d,\"iterations\":%d,\"treeSize\":%d,\"treeDepth\":%d,\"card\":\"%s\",\"confidence\":%.4f,\"rootVisits\":%s}}",
+                searches, bookHits, iterations, playoutsPerSecond(), meanTreeSize(), meanTreeDepth(), maxTreeDepth, meanConfidence(),
+                latency.toJson(), tricks, lastNanos, lastIterations, lastTreeSize, lastTreeDepth, lastCardName(), lastConfidence,
+                rootVisits(",", "{", "}", "\"%s\":%d"));
+    }
+    
+    /**
+     * Gives the metrics in text, one per line, the durations in milliseconds.
+     * @return a text of several lines.
+     */
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append(String.format("searches %d, book hits %d, iterations %d, %.0f playouts/s%n", searches, bookHits, iterations, playoutsPerSecond()));
+        b.append(String.format("tree size %.1f, depth %.2f (max %d), confidence %.3f%n", meanTreeSize(), meanTreeDepth(), maxTreeDepth, meanConfidence()));
+        b.append("latency ").append(latency).append(System.lineSeparator());
+        for (int i = 0; i < trickLatencies.length; i++)
+            b.append("  trick ").append(i).append(' ').append(trickLatencies[i]).append(System.lineSeparator());
+        b.append(String.format("last %s, %.3f ms, %d iterations, %d nodes, depth %d, confidence %.3f, visits %s",
+                lastCardName(), lastNanos / 1e6, lastIterations, lastTreeSize, lastTreeDepth, lastConfidence,
+                rootVisits(" ", "", "", "%s=%d")));
+        return b.toString();
+    }
+    
+    /*
+     * Returns the card picked by the last search, or an empty string if there was none.
+     */
+    private String lastCardName() {
+        return lastCard == PackedCard.INVALID ? "" : PackedCard.toString(lastCard);
+    }
+    
+    /*
+     * Joins the visited cards of the root of the last search with their visits, in the given format.
+     */
+    private String rootVisits(String delimiter, String prefix, String suffix, String format) {
+        StringJoiner j = new StringJoiner(delimiter, prefix, suffix);
+        for (int pkCard = 0; pkCard < PackedCard.INVALID; pkCard++)
+            if (lastRootVisits[pkCard] > 0)
+                j.add(String.format(Locale.ROOT, format, PackedCard.toString(pkCard), lastRootVisits[pkCard]));
+        return j.toString();
+    }
+}
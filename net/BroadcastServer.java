@@ -0,0 +1,342 @@
+package javass.net;
+
+import static javass.net.StringSerializer.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javass.jass.Card.Color;
+import javass.jass.GameObserver;
+import javass.jass.JassGame;
+import javass.jass.PlayerId;
+import javass.jass.TeamId;
+
+/**
+ * A {@link GameObserver} broadcasting a {@link JassGame} to any number of
+ * spectators connected on a port. Each event is serialized once into an
+ * immutable frame shared by all the connections, which a single thread writes
+ * with non-blocking channels. A spectator too slow to receive every frame only
+ * receives the latest frame of each kind, and a spectator connecting during a
+ * game first receives the latest frame of each kind, so the game never waits
+ * for them.
+ * <p>
+ * A frame is a line of a {@link JassCommand} followed by its arguments,
+ * separated by spaces and serialized by {@link StringSerializer}. Unlike the
+ * lines sent to a remote player, they describe the game as seen by no player:
+ * <ul>
+ * <li>{@code PLRS <names>}: the names of the players, in the order of the
+ * {@link PlayerId}s, separated by commas, without the identity of a player;</li>
+ * <li>{@code HAND <player> <hand>}: the ordinal of a player, then its packed hand,
+ * each of the four hands being sent;</li>
+ * <li>{@code TRMP}, {@code TRCK}, {@code SCOR} and {@code WINR}: the same
+ * argument as the line sent to a remote player.</li>
+ * </ul>
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class BroadcastServer implements GameObserver, AutoCloseable {
+
+    /**
+     * The default port of the spectators, next to the one of the remote players.
+     */
+    public static final int DEFAULT_PORT = 5109;
+
+    //The kinds of frames, the latest frame of a kind replacing the previous one for a slow spectator.
+    private static final int PLRS_KIND = 0;
+    private static final int TRMP_KIND = 1;
+    private static final int HAND_KIND = 2;
+    private static final int TRCK_KIND = HAND_KIND + PlayerId.COUNT;
+    private static final int SCOR_KIND = TRCK_KIND + 1;
+    private static final int WINR_KIND = SCOR_KIND + 1;
+    private static final int KIND_COUNT = WINR_KIND + 1;
+    private static final int READ_BUFFER_SIZE = 256;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Thread thread;
+    private final AtomicReferenceArray<ByteBuffer> latest = new AtomicReferenceArray<>(KIND_COUNT);
+    private final Queue<Published> published = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed = false;
+    private volatile IOException failure;
+    private volatile int spectatorCount = 0;
+
+    /**
+     * Starts a server broadcasting to the spectators connecting on the given port.
+     * @param port the port, or 0 to pick a free one.
+     * @throws IOException if the port cannot be listened on.
+     */
+    public BroadcastServer(int port) throws IOException {
+        this.server = ServerSocketChannel.open();
+        this.selector = Selector.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        this.thread = new Thread(this::run, "broadcast-" + port());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Gives the port the spectators connect on.
+     * @return the port of the server.
+     */
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Gives the number of spectators currently connected.
+     * @return the number of connected spectators.
+     */
+    public int spectatorCount() {
+        return spectatorCount;
+    }
+
+    /**
+     * Gives the error which stopped the server, after which the events are no longer broadcast.
+     * @return the error of the server, or null if it is running or was closed normally.
+     */
+    public IOException failure() {
+        return failure;
+    }
+
+    @Override
+    public void setPlayers(Map<PlayerId, String> playerNames) {
+        //A new game starts, the frames of the previous one are no longer sent to new spectators.
+        for (int i = 0; i < KIND_COUNT; i++)
+            latest.set(i, null);
+
+        String[] names = new String[PlayerId.COUNT];
+        for (int i = 0; i < names.length; i++)
+            names[i] = serializeString(playerNames.get(PlayerId.ALL.get(i)));
+        publish(PLRS_KIND, JassCommand.PLRS, combine(',', names));
+    }
+
+    @Override
+    public void updateHand(PlayerId player, long pkHand) {
+        publish(HAND_KIND + player.ordinal(), JassCommand.HAND, serializeInt(player.ordinal()), serializeLong(pkHand));
+    }
+
+    @Override
+    public void setTrump(Color trump) {
+        publish(TRMP_KIND, JassCommand.TRMP, serializeInt(trump.ordinal()));
+    }
+
+    @Override
+    public void updateTrick(int pkTrick) {
+        publish(TRCK_KIND, JassCommand.TRCK, serializeInt(pkTrick));
+    }
+
+    @Override
+    public void updateScore(long pkScore) {
+        publish(SCOR_KIND, JassCommand.SCOR, serializeLong(pkScore));
+    }
+
+    @Override
+    public void setWinningTeam(TeamId winningTeam) {
+        publish(WINR_KIND, JassCommand.WINR, serializeInt(winningTeam.ordinal()));
+    }
+
+    /**
+     * Disconnects the spectators and stops listening, waiting for the thread of the server to end.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Serializes an event once and hands it to the thread of the server.
+     */
+    private void publish(int kind, JassCommand command, String... args) {
+        //No thread would write the frame, which would then stay in the queue.
+        if (closed)
+            return;
+        
+        String[] line = new String[args.length + 1];
+        line[0] = command.toString();
+        System.arraycopy(args, 0, line, 1, args.length);
+        byte[] bytes = (combine(' ', line) + "\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer frame = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+
+        latest.set(kind, frame);
+        published.add(new Published(kind, frame));
+        selector.wakeup();
+    }
+
+    /*
+     * The loop of the thread of the server, accepting the spectators and writing the frames.
+     */
+    private void run() {
+        List<Connection> connections = new ArrayList<>();
+        ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        try {
+            while (!closed) {
+                selector.select();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                        accept(connections);
+                    else {
+                        Connection c = (Connection) key.attachment();
+                        //Spectators send nothing, reading only detects their disconnection.
+                        if (key.isReadable()) {
+                            readBuffer.clear();
+                            if (c.read(readBuffer) < 0)
+                                c.close();
+                        }
+                        if (key.isValid() && key.isWritable())
+                            c.flush();
+                    }
+                }
+
+                Published p;
+                while ((p = published.poll()) != null)
+                    for (Connection c : connections)
+                        c.enqueue(p.kind, p.frame);
+                for (Connection c : connections)
+                    c.flush();
+
+                connections.removeIf(c -> !c.channel.isOpen());
+                spectatorCount = connections.size();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            closed = true;
+            published.clear();
+            for (Connection c : connections)
+                c.close();
+            spectatorCount = 0;
+            try {
+                selector.close();
+                server.close();
+            } catch (IOException e) {
+                if (failure == null)
+                    failure = e;
+            }
+        }
+    }
+
+    private void accept(List<Connection> connections) throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null)
+            return;
+        channel.configureBlocking(false);
+        Connection c = new Connection(channel, channel.register(selector, SelectionKey.OP_READ));
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            ByteBuffer frame = latest.get(kind);
+            if (frame != null)
+                c.enqueue(kind, frame);
+        }
+        connections.add(c);
+    }
+
+    /*
+     * An event serialized in a frame, waiting to be handed to the connections.
+     */
+    private static final class Published {
+        private final int kind;
+        private final ByteBuffer frame;
+
+        private Published(int kind, ByteBuffer frame) {
+            this.kind = kind;
+            this.frame = frame;
+        }
+    }
+
+    /*
+     * The connection of a spectator, keeping at most one pending frame of each kind.
+     */
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer[] pending = new ByteBuffer[KIND_COUNT];
+        private final Queue<Integer> order = new ArrayDeque<>(KIND_COUNT);
+        private ByteBuffer writing;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            key.attach(this);
+        }
+
+        private void enqueue(int kind, ByteBuffer frame) {
+            if (pending[kind] == null)
+                order.add(kind);
+            pending[kind] = frame;
+        }
+
+        private int read(ByteBuffer buffer) {
+            try {
+                return channel.read(buffer);
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+
+        /*
+         * Writes the pending frames until the channel is full, waiting to be writable again if it is.
+         */
+        private void flush() {
+            if (!channel.isOpen())
+                return;
+            try {
+                while (true) {
+                    if (writing == null) {
+                        Integer kind = order.poll();
+                        if (kind == null)
+                            break;
+                        writing = pending[kind].duplicate();
+                        pending[kind] = null;
+                    }
+                    channel.write(writing);
+                    if (writing.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    writing = null;
+                }
+                key.interestOps(SelectionKey.OP_READ);
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //The spectator is dropped either way.
+            }
+        }
+    }
+}
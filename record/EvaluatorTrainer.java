@@ -0,0 +1,195 @@
+package javass.record;
+
+import static javass.Preconditions.checkArgument;
+import static javass.record.SelfPlayExporter.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import javass.jass.Jass;
+import javass.jass.LinearEvaluator;
+import javass.jass.PackedCardSet;
+import javass.jass.PackedScore;
+import javass.jass.PackedTrick;
+import javass.jass.PlayerId;
+import javass.jass.TeamId;
+
+/**
+ * Fits the weights of a {@link LinearEvaluator} by stochastic gradient descent
+ * on the data written by a {@link SelfPlayExporter}. At the beginning of each
+ * trick, the turn is replayed to know the points already made, and each of the
+ * four players gives a sample: its hand and the share of the points left that
+ * its team finally made. The columns are mapped in memory a window of turns at
+ * a time, and the last turns are kept aside to validate the weights.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class EvaluatorTrainer {
+    
+    /**
+     * The default number of passes over the training turns.
+     */
+    public static final int DEFAULT_EPOCHS = 5;
+    
+    /**
+     * The default learning rate of the gradient descent.
+     */
+    public static final float DEFAULT_LEARNING_RATE = 0.01f;
+    
+    private static final int TURN_ROWS = PlayerId.COUNT * Jass.HAND_SIZE;
+    private static final int WINDOW_TURNS = 1 << 16;
+    //One turn in VALIDATION_PERIOD is kept aside to validate the weights.
+    private static final int VALIDATION_PERIOD = 10;
+    
+    private final FileChannel unplayed;
+    private final FileChannel hand;
+    private final FileChannel trick;
+    private final FileChannel score;
+    private final FileChannel card;
+    private final long turns;
+    private final float[] weights = new float[LinearEvaluator.FEATURE_COUNT];
+    private final float[] features = new float[LinearEvaluator.FEATURE_COUNT];
+    
+    /**
+     * Opens the columns of the given directory.
+     * @param directory the directory of the columns written by a {@link SelfPlayExporter}.
+     * @throws IOException if a column cannot be read or the columns do not hold whole turns.
+     */
+    public EvaluatorTrainer(Path directory) throws IOException {
+        unplayed = FileChannel.open(directory.resolve(UNPLAYED_FILE), StandardOpenOption.READ);
+        hand = FileChannel.open(directory.resolve(HAND_FILE), StandardOpenOption.READ);
+        trick = FileChannel.open(directory.resolve(TRICK_FILE), StandardOpenOption.READ);
+        score = FileChannel.open(directory.resolve(SCORE_FILE), StandardOpenOption.READ);
+        card = FileChannel.open(directory.resolve(CARD_FILE), StandardOpenOption.READ);
+        
+        long rows = unplayed.size() / Long.BYTES;
+        if (rows % TURN_ROWS != 0 || hand.size() != rows * Long.BYTES || trick.size() != rows * Integer.BYTES || score.size() != rows * Long.BYTES
+                || card.size() != rows)
+            throw new IOException("Not the columns of whole turns: " + directory);
+        turns = rows / TURN_ROWS;
+        //Starts from an evaluator giving half of the points left to each team.
+        weights[0] = 0.5f;
+    }
+    
+    /**
+     * Trains the weights and prints the root mean square errors of each epoch.
+     * @param args {directory} {weights file} [{epochs} [{learning rate}]]
+     * @throws IOException if the columns cannot be read or the weights cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_EPOCHS;
+        float learningRate = args.length > 3 ? Float.parseFloat(args[3]) : DEFAULT_LEARNING_RATE;
+        
+        EvaluatorTrainer trainer = new EvaluatorTrainer(directory);
+        System.out.println("epoch\ttraining rmse\tvalidation rmse");
+        for (int e = 1; e <= epochs; e++) {
+            double trainingError = trainer.epoch(learningRate, false);
+            double validationError = trainer.epoch(0, true);
+            System.out.printf("%d\t%.4f\t%.4f%n", e, trainingError, validationError);
+        }
+        trainer.evaluator().save(output);
+    }
+    
+    /**
+     * Gives an evaluator with the current weights.
+     * @return a new evaluator with the current weights.
+     */
+    public LinearEvaluator evaluator() {
+        return new LinearEvaluator(weights);
+    }
+    
+    /**
+     * Goes once through the training or the validation turns, updating the weights after each
+     * sample of the training turns.
+     * @param learningRate the learning rate of the gradient descent, 0 to leave the weights unchanged.
+     * @param validation true to go through the validation turns, false for the training turns.
+     * @throws IOException if the columns cannot be read.
+     * @throws IllegalArgumentException if learningRate is negative.
+     * @return the root mean square error of the shares estimated before each update.
+     */
+    public double epoch(float learningRate, boolean validation) throws IOException {
+        checkArgument(learningRate >= 0);
+        
+        double squaredError = 0;
+        long samples = 0;
+        for (long first = 0; first < turns; first += WINDOW_TURNS) {
+            int windowTurns = (int) Math.min(WINDOW_TURNS, turns - first);
+            long firstRow = first * TURN_ROWS;
+            int rows = windowTurns * TURN_ROWS;
+            LongBuffer unplayedColumn = map(unplayed, firstRow * Long.BYTES, rows * Long.BYTES).asLongBuffer();
+            LongBuffer handColumn = map(hand, firstRow * Long.BYTES, rows * Long.BYTES).asLongBuffer();
+            IntBuffer trickColumn = map(trick, firstRow * Integer.BYTES, rows * Integer.BYTES).asIntBuffer();
+            LongBuffer scoreColumn = map(score, firstRow * Long.BYTES, rows * Long.BYTES).asLongBuffer();
+            ByteBuffer cardColumn = map(card, firstRow, rows);
+            
+            for (int t = 0; t < windowTurns; t++) {
+                if (((first + t) % VALIDATION_PERIOD == 0) != validation)
+                    continue;
+                int row = t * TURN_ROWS;
+                if (unplayedColumn.get(row) != PackedCardSet.ALL_CARDS)
+                    throw new IOException("Turn " + (first + t) + " does not start with all the cards unplayed");
+                
+                long finalScore = scoreColumn.get(row);
+                long pkScore = PackedScore.INITIAL;
+                for (int k = 0; k < Jass.TRICKS_PER_TURN; k++, row += PlayerId.COUNT) {
+                    long pkUnplayed = unplayedColumn.get(row);
+                    int pkTrick = trickColumn.get(row);
+                    int pointsLeft = PackedCardSet.points(pkUnplayed, PackedTrick.trump(pkTrick)) + Jass.LAST_TRICK_ADDITIONAL_POINTS;
+                    
+                    //The players have not played in the trick before their rows, so their hands are those of its beginning.
+                    for (int j = 0; j < PlayerId.COUNT; j++) {
+                        PlayerId player = PackedTrick.player(pkTrick, j);
+                        double target = (ownPointsLeft(finalScore, player.team()) - PackedScore.turnPoints(pkScore, player.team())) / (double) pointsLeft;
+                        LinearEvaluator.features(pkScore, pkUnplayed, pkTrick, handColumn.get(row + j), player, features);
+                        
+                        double error = estimate() - target;
+                        squaredError += error * error;
+                        samples++;
+                        if (learningRate > 0)
+                            for (int i = 0; i < weights.length; i++)
+                                weights[i] -= learningRate * error * features[i];
+                    }
+                    
+                    int last = row + PlayerId.COUNT - 1;
+                    int fullTrick = PackedTrick.withAddedCard(trickColumn.get(last), cardColumn.get(last));
+                    pkScore = PackedScore.withAdditionalTrick(pkScore, PackedTrick.winningPlayer(fullTrick).team(), PackedTrick.points(fullTrick));
+                }
+            }
+        }
+        return samples == 0 ? 0 : Math.sqrt(squaredError / samples);
+    }
+    
+    /*
+     * Returns the unclamped estimate of the current weights for the current features.
+     */
+    private double estimate() {
+        double v = 0;
+        for (int i = 0; i < weights.length; i++)
+            v += weights[i] * features[i];
+        return v;
+    }
+    
+    /*
+     * Returns the points made by the given team in the turn of the given final score, without those of a match.
+     */
+    private static int ownPointsLeft(long finalScore, TeamId team) {
+        int points = PackedScore.turnPoints(finalScore, team);
+        return PackedScore.turnTricks(finalScore, team) == Jass.TRICKS_PER_TURN ? points - Jass.MATCH_ADDITIONAL_POINTS : points;
+    }
+    
+    /*
+     * Maps the given range of a column.
+     */
+    private static ByteBuffer map(FileChannel column, long position, long size) throws IOException {
+        return column.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+}
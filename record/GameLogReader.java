@@ -0,0 +1,252 @@
+package javass.record;
+
+import static javass.Preconditions.checkArgument;
+import static javass.Preconditions.checkIndex;
+import static javass.record.GameRecorder.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import javass.jass.Card.Color;
+import javass.jass.PlayerId;
+
+/**
+ * Reads the games recorded in a log written by a {@link GameLogWriter}, by
+ * mapping its segments in memory. The games are read in place through a
+ * {@link Cursor}, without allocating any object per game.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class GameLogReader {
+    
+    private final List<ByteBuffer> segments;
+    
+    /**
+     * Maps all the segments of the log of the given directory.
+     * @param directory the directory containing the segments.
+     * @throws IOException if a segment cannot be read or is not a segment of games.
+     */
+    public GameLogReader(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, GameLogWriter.SEGMENT_PREFIX + "*" + GameLogWriter.SEGMENT_SUFFIX)) {
+            for (Path p : stream)
+                paths.add(p);
+        }
+        paths.sort(Comparator.comparingInt(GameLogWriter::segmentIndex));
+        
+        List<ByteBuffer> mapped = new ArrayList<>();
+        for (Path p : paths)
+            try (FileChannel c = FileChannel.open(p, StandardOpenOption.READ)) {
+                //The mapping stays valid once the channel is closed.
+                MappedByteBuffer segment = c.map(FileChannel.MapMode.READ_ONLY, 0, c.size());
+                if (segment.limit() < GameLogWriter.SEGMENT_HEADER_SIZE || segment.getInt(0) != GameLogWriter.MAGIC)
+                    throw new IOException("Not a segment of games: " + p);
+                mapped.add(segment);
+            }
+        this.segments = Collections.unmodifiableList(mapped);
+    }
+    
+    /**
+     * Gives the number of segments of the log.
+     * @return the number of segments.
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+    
+    /**
+     * Gives a cursor over all the games of the log, in the order they were recorded.
+     * @return a new cursor, placed before the first game.
+     */
+    public Cursor cursor() {
+        return new Cursor(segments, 0, segments.size(), GameLogWriter.SEGMENT_HEADER_SIZE, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Gives a cursor over the games of one segment of the log.
+     * @param segment the index of the segment.
+     * @throws IndexOutOfBoundsException if the index is not the one of a segment.
+     * @return a new cursor, placed before the first game of the segment.
+     */
+    public Cursor cursor(int segment) {
+        checkIndex(segment, segments.size());
+        return new Cursor(segments, segment, segment + 1, GameLogWriter.SEGMENT_HEADER_SIZE, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Splits the games of the log into ranges of consecutive games of a segment, to read them in parallel.
+     * Only the lengths of the records are read to find the ranges.
+     * @param games the most games of a range.
+     * @throws IllegalArgumentException if games is not positive.
+     * @return cursors over the ranges, in the order the games were recorded, each placed before its first game.
+     */
+    public List<Cursor> ranges(int games) {
+        checkArgument(games > 0);
+        
+        List<Cursor> ranges = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            ByteBuffer segment = segments.get(i);
+            int start = GameLogWriter.SEGMENT_HEADER_SIZE;
+            int position = start;
+            int count = 0;
+            while (Cursor.isWhole(segment, position)) {
+                position += segment.getInt(position + LENGTH_OFFSET);
+                if (++count == games) {
+                    ranges.add(new Cursor(segments, i, i + 1, start, position));
+                    start = position;
+                    count = 0;
+                }
+            }
+            if (count > 0)
+                ranges.add(new Cursor(segments, i, i + 1, start, position));
+        }
+        return ranges;
+    }
+    
+    /**
+     * A cursor reading the recorded games one after the other, in place.
+     * @author Charles BEAUVILLE
+     * @author Celia HOUSSIAUX
+     *
+     */
+    public static final class Cursor {
+        private final List<ByteBuffer> segments;
+        private final int lastSegment;
+        //The position after the last game read in the last segment.
+        private final int end;
+        private int segmentIndex;
+        private ByteBuffer segment;
+        private int next;
+        private int record;
+        
+        private Cursor(List<ByteBuffer> segments, int firstSegment, int lastSegment, int start, int end) {
+            this.segments = segments;
+            this.lastSegment = lastSegment;
+            this.end = end;
+            this.segmentIndex = firstSegment;
+            this.segment = firstSegment < lastSegment ? segments.get(firstSegment).duplicate() : null;
+            this.next = start;
+            this.record = -1;
+        }
+        
+        /**
+         * Moves the cursor to the next game. A game whose record was torn by a crash of the writer
+         * ends its segment, the writer appending the following games to a new segment.
+         * @return true if there was a next game, false if all the games have been read.
+         */
+        public boolean next() {
+            while (segment != null) {
+                if ((segmentIndex < lastSegment - 1 || next < end) && isWhole(segment, next)) {
+                    record = next;
+                    next += segment.getInt(record + LENGTH_OFFSET);
+                    return true;
+                }
+                segmentIndex++;
+                segment = segmentIndex < lastSegment ? segments.get(segmentIndex).duplicate() : null;
+                next = GameLogWriter.SEGMENT_HEADER_SIZE;
+            }
+            record = -1;
+            return false;
+        }
+        
+        /**
+         * Gives the seed of the current game.
+         * @return the seed the game was played with.
+         */
+        public long seed() {
+            return segment.getLong(record + SEED_OFFSET);
+        }
+        
+        /**
+         * Gives the final score of the current game.
+         * @return the packed version of the score at the end of the game.
+         */
+        public long finalScore() {
+            return segment.getLong(record + SCORE_OFFSET);
+        }
+        
+        /**
+         * Gives the number of turns of the current game, the last one being possibly unfinished.
+         * @return the number of turns.
+         */
+        public int turnCount() {
+            return segment.get(record + TURN_COUNT_OFFSET) & 0xFF;
+        }
+        
+        /**
+         * Gives the trump of a turn of the current game.
+         * @param turn the index of the turn.
+         * @return the trump color of the turn.
+         */
+        public Color trump(int turn) {
+            return Color.ALL.get(segment.get(turn(turn) + TRUMP_OFFSET));
+        }
+        
+        /**
+         * Gives the first player of a turn of the current game.
+         * @param turn the index of the turn.
+         * @return the player who played the first card of the turn.
+         */
+        public PlayerId firstPlayer(int turn) {
+            return PlayerId.ALL.get(segment.get(turn(turn) + FIRST_PLAYER_OFFSET));
+        }
+        
+        /**
+         * Gives the initial hand of a player in a turn of the current game.
+         * @param turn the index of the turn.
+         * @param player the player.
+         * @return the packed version of the hand of the player at the beginning of the turn.
+         */
+        public long hand(int turn, PlayerId player) {
+            return segment.getLong(turn(turn) + HANDS_OFFSET + player.ordinal() * Long.BYTES);
+        }
+        
+        /**
+         * Gives the number of cards played in a turn of the current game.
+         * @param turn the index of the turn.
+         * @return the number of cards played, less than 36 only for the last turn.
+         */
+        public int cardCount(int turn) {
+            return segment.get(turn(turn) + CARD_COUNT_OFFSET);
+        }
+        
+        /**
+         * Gives a card played in a turn of the current game.
+         * @param turn the index of the turn.
+         * @param index the index of the card, in the order they were played.
+         * @return the packed version of the card.
+         */
+        public int card(int turn, int index) {
+            long word = segment.getLong(turn(turn) + CARDS_OFFSET + (index / CARDS_PER_WORD) * Long.BYTES);
+            return GameRecorder.card(word, index);
+        }
+        
+        /*
+         * Returns true if a whole record starts at the given position of the segment,
+         * its length being the one of its turns and fitting in the segment.
+         */
+        private static boolean isWhole(ByteBuffer segment, int position) {
+            if (position + HEADER_SIZE > segment.limit())
+                return false;
+            int length = segment.getInt(position + LENGTH_OFFSET);
+            int turnCount = segment.get(position + TURN_COUNT_OFFSET) & 0xFF;
+            return length == HEADER_SIZE + turnCount * TURN_SIZE && length <= segment.limit() - position;
+        }
+        
+        private int turn(int turn) {
+            assert record >= 0 && turn >= 0 && turn < turnCount() : "Invalid turn in cursor of GameLogReader";
+            return record + HEADER_SIZE + turn * TURN_SIZE;
+        }
+    }
+}
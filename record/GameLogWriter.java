@@ -0,0 +1,115 @@
+package javass.record;
+
+import static javass.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the records of finished games to a log split in segment files of
+ * bounded size, which can be read back by a {@link GameLogReader}. It may be
+ * shared by several games played concurrently.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class GameLogWriter implements AutoCloseable {
+    
+    /**
+     * The default maximal size of a segment, in bytes.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+    
+    static final int MAGIC = 0x4A524543;
+    static final int SEGMENT_HEADER_SIZE = Integer.BYTES;
+    static final String SEGMENT_PREFIX = "games-";
+    static final String SEGMENT_SUFFIX = ".jrec";
+    
+    private final Path directory;
+    private final long segmentSize;
+    private int segmentIndex;
+    private FileChannel segment;
+    private long segmentPosition;
+    
+    /**
+     * Opens a log in the given directory, with segments of the default size.
+     * @param directory the directory of the segments, created if needed.
+     * @throws IOException if the directory cannot be created or read.
+     */
+    public GameLogWriter(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+    
+    /**
+     * Opens a log in the given directory. The records are appended to new
+     * segments, numbered after the segments already in the directory.
+     * @param directory the directory of the segments, created if needed.
+     * @param segmentSize the maximal size of a segment in bytes, which can be mapped in memory.
+     * @throws IllegalArgumentException if segmentSize is not positive or too large to be mapped.
+     * @throws IOException if the directory cannot be created or read.
+     */
+    public GameLogWriter(Path directory, long segmentSize) throws IOException {
+        checkArgument(segmentSize > SEGMENT_HEADER_SIZE && segmentSize <= Integer.MAX_VALUE);
+        
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        
+        segmentIndex = -1;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : segments)
+                segmentIndex = Math.max(segmentIndex, segmentIndex(p));
+        }
+    }
+    
+    /**
+     * Appends the record of a finished game to the log.
+     * @param recorder the recorder of the game.
+     * @throws IllegalStateException if the game has not ended.
+     * @throws IOException if the record cannot be written.
+     */
+    public synchronized void append(GameRecorder recorder) throws IOException {
+        ByteBuffer record = recorder.record();
+        
+        //Rolls to a new segment when the record does not fit in the current one.
+        if (segment == null || segmentPosition + record.remaining() > segmentSize)
+            nextSegment();
+        
+        while (record.hasRemaining())
+            segmentPosition += segment.write(record, segmentPosition);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+    
+    /*
+     * Gives the index of a segment from its file name.
+     */
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    private void nextSegment() throws IOException {
+        close();
+        
+        segmentIndex++;
+        segment = FileChannel.open(directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(MAGIC);
+        header.flip();
+        segmentPosition = 0;
+        while (header.hasRemaining())
+            segmentPosition += segment.write(header, segmentPosition);
+    }
+}
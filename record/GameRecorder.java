@@ -0,0 +1,157 @@
+package javass.record;
+
+import java.nio.ByteBuffer;
+
+import javass.bits.Bits64;
+import javass.jass.Card.Color;
+import javass.jass.Jass;
+import javass.jass.PackedCard;
+import javass.jass.PlayerId;
+
+/**
+ * Records one game of Jass as a compact binary record of packed primitives:
+ * the seed of the game, then for each turn its trump, its first player, the
+ * four initial hands as packed card sets and the cards played as 6-bit packed
+ * cards, and finally the packed score of the game.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class GameRecorder {
+    
+    /*
+     * The layout of a record, all numbers being big-endian:
+     *   int length, long seed, long final score, byte turn count,
+     *   then per turn: byte trump, byte first player, byte card count, long[4] hands, long[4] cards,
+     * each long of cards holding CARDS_PER_WORD 6-bit packed cards.
+     */
+    static final int LENGTH_OFFSET = 0;
+    static final int SEED_OFFSET = 4;
+    static final int SCORE_OFFSET = 12;
+    static final int TURN_COUNT_OFFSET = 20;
+    static final int HEADER_SIZE = 21;
+    
+    static final int TRUMP_OFFSET = 0;
+    static final int FIRST_PLAYER_OFFSET = 1;
+    static final int CARD_COUNT_OFFSET = 2;
+    static final int HANDS_OFFSET = 3;
+    static final int CARDS_OFFSET = HANDS_OFFSET + PlayerId.COUNT * Long.BYTES;
+    static final int CARD_SIZE = 6;
+    static final int CARDS_PER_WORD = Long.SIZE / CARD_SIZE;
+    static final int CARD_WORDS = (PlayerId.COUNT * Jass.HAND_SIZE + CARDS_PER_WORD - 1) / CARDS_PER_WORD;
+    static final int TURN_SIZE = CARDS_OFFSET + CARD_WORDS * Long.BYTES;
+    
+    static final int MAX_TURNS = 0xFF;
+    private static final int INITIAL_TURNS = 16;
+    
+    private ByteBuffer buffer;
+    private int turnCount;
+    private int cardCount;
+    private boolean ended;
+    
+    /**
+     * Starts the record of a game.
+     * @param seed the seed of the recorded game.
+     */
+    public GameRecorder(long seed) {
+        buffer = ByteBuffer.allocate(HEADER_SIZE + INITIAL_TURNS * TURN_SIZE);
+        buffer.putLong(SEED_OFFSET, seed);
+        turnCount = 0;
+        cardCount = 0;
+        ended = false;
+    }
+    
+    /**
+     * Records the beginning of a new turn.
+     * @param trump the trump of the turn.
+     * @param firstPlayer the player playing the first card of the turn.
+     * @param pkHands the packed initial hands of the players, indexed by the ordinal of their id.
+     * @throws IllegalStateException if the game has ended or has too many turns.
+     */
+    public void startTurn(Color trump, PlayerId firstPlayer, long[] pkHands) {
+        if (ended || turnCount == MAX_TURNS)
+            throw new IllegalStateException();
+        
+        int turn = HEADER_SIZE + turnCount * TURN_SIZE;
+        if (turn + TURN_SIZE > buffer.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+            grown.put(buffer.array());
+            buffer = grown;
+        }
+        
+        buffer.put(turn + TRUMP_OFFSET, (byte) trump.ordinal());
+        buffer.put(turn + FIRST_PLAYER_OFFSET, (byte) firstPlayer.ordinal());
+        buffer.put(turn + CARD_COUNT_OFFSET, (byte) 0);
+        for (int p = 0; p < PlayerId.COUNT; p++)
+            buffer.putLong(turn + HANDS_OFFSET + p * Long.BYTES, pkHands[p]);
+        for (int w = 0; w < CARD_WORDS; w++)
+            buffer.putLong(turn + CARDS_OFFSET + w * Long.BYTES, 0L);
+        
+        turnCount++;
+        cardCount = 0;
+    }
+    
+    /**
+     * Records a card played in the current turn.
+     * @param pkCard the packed version of the card played.
+     * @throws IllegalStateException if no turn has started or the current turn is over.
+     */
+    public void cardPlayed(int pkCard) {
+        assert PackedCard.isValid(pkCard) : "Invalid card in cardPlayed function of GameRecorder";
+        if (ended || turnCount == 0 || cardCount == PlayerId.COUNT * Jass.HAND_SIZE)
+            throw new IllegalStateException();
+        
+        int word = currentTurn() + CARDS_OFFSET + (cardCount / CARDS_PER_WORD) * Long.BYTES;
+        int shift = (cardCount % CARDS_PER_WORD) * CARD_SIZE;
+        buffer.putLong(word, buffer.getLong(word) | (long) pkCard << shift);
+        buffer.put(currentTurn() + CARD_COUNT_OFFSET, (byte) ++cardCount);
+    }
+    
+    /**
+     * Records the end of the game.
+     * @param pkScore the packed version of the final score of the game.
+     */
+    public void endGame(long pkScore) {
+        buffer.putLong(SCORE_OFFSET, pkScore);
+        buffer.put(TURN_COUNT_OFFSET, (byte) turnCount);
+        buffer.putInt(LENGTH_OFFSET, length());
+        ended = true;
+    }
+    
+    /**
+     * Checks if the game has ended, its record being complete.
+     * @return true if endGame has been called.
+     */
+    public boolean hasEnded() {
+        return ended;
+    }
+    
+    /**
+     * Gives the complete record of the game.
+     * @throws IllegalStateException if the game has not ended.
+     * @return a read-only buffer containing the record, from its position to its limit.
+     */
+    public ByteBuffer record() {
+        if (!ended)
+            throw new IllegalStateException();
+        
+        ByteBuffer record = buffer.asReadOnlyBuffer();
+        record.position(0).limit(length());
+        return record;
+    }
+    
+    /*
+     * Extracts the packed card of the given index from the words of cards of a turn.
+     */
+    static int card(long word, int index) {
+        return (int) Bits64.extract(word, (index % CARDS_PER_WORD) * CARD_SIZE, CARD_SIZE);
+    }
+    
+    private int currentTurn() {
+        return HEADER_SIZE + (turnCount - 1) * TURN_SIZE;
+    }
+    
+    private int length() {
+        return HEADER_SIZE + turnCount * TURN_SIZE;
+    }
+}
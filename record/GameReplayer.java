@@ -0,0 +1,171 @@
+package javass.record;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import javass.jass.Card;
+import javass.jass.CardSet;
+import javass.jass.JassGame;
+import javass.jass.PackedCardSet;
+import javass.jass.PackedScore;
+import javass.jass.PackedTrick;
+import javass.jass.Player;
+import javass.jass.PlayerId;
+import javass.jass.Score;
+import javass.jass.TurnState;
+
+/**
+ * Replays recorded games, checking that every card played was playable and
+ * that the replayed game ends with the recorded score.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class GameReplayer {
+    
+    //The games replayed by a task, enough for a task to outweigh its scheduling.
+    private static final int RANGE_GAMES = 1024;
+    
+    private GameReplayer() {}
+    
+    /**
+     * Replays the current game of the cursor through the transitions of {@link TurnState}.
+     * @param game a cursor placed on a recorded game.
+     * @throws IllegalStateException if the deal is not valid or a card played was not playable.
+     * @return the packed version of the score at the end of the replayed game.
+     */
+    public static long replay(GameLogReader.Cursor game) {
+        long[] hands = new long[PlayerId.COUNT];
+        long score = PackedScore.INITIAL;
+        TurnState state = null;
+        
+        for (int turn = 0; turn < game.turnCount(); turn++) {
+            long deal = PackedCardSet.EMPTY;
+            for (PlayerId p : PlayerId.ALL) {
+                hands[p.ordinal()] = game.hand(turn, p);
+                if (!PackedCardSet.isValid(hands[p.ordinal()]) 
+                        || PackedCardSet.intersection(deal, hands[p.ordinal()]) != PackedCardSet.EMPTY)
+                    throw new IllegalStateException("Invalid deal in turn " + turn);
+                deal = PackedCardSet.union(deal, hands[p.ordinal()]);
+            }
+            if (deal != PackedCardSet.ALL_CARDS)
+                throw new IllegalStateException("Incomplete deal in turn " + turn);
+            
+            //The last trick of the previous turn is collected when the next turn begins.
+            if (state != null)
+                score = PackedScore.nextTurn(state.withTrickCollected().packedScore());
+            state = TurnState.initial(game.trump(turn), Score.ofPacked(score), game.firstPlayer(turn));
+            
+            for (int i = 0; i < game.cardCount(turn); i++) {
+                if (state.trick().isFull())
+                    state = state.withTrickCollected();
+                
+                int pkCard = game.card(turn, i);
+                int player = state.nextPlayer().ordinal();
+                if (!PackedCardSet.contains(PackedTrick.playableCards(state.packedTrick(), hands[player]), pkCard))
+                    throw new IllegalStateException("Unplayable card " + Card.ofPacked(pkCard) + " in turn " + turn);
+                
+                hands[player] = PackedCardSet.remove(hands[player], pkCard);
+                state = state.withNewCardPlayed(Card.ofPacked(pkCard));
+            }
+        }
+        //The game ends before its last trick is collected.
+        return state == null ? score : state.packedScore();
+    }
+    
+    /**
+     * Checks that the current game of the cursor replays to its recorded score.
+     * @param game a cursor placed on a recorded game.
+     * @return true if the game is valid and its replay ends with the recorded score.
+     */
+    public static boolean verify(GameLogReader.Cursor game) {
+        try {
+            return replay(game) == game.finalScore();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Verifies all the games of a log, replaying ranges of its games in parallel on all the cores.
+     * @param log the log to verify.
+     * @return the number of games which are not valid or do not replay to their recorded score.
+     */
+    public static long countMismatches(GameLogReader log) {
+        return log.ranges(RANGE_GAMES).parallelStream()
+                .mapToLong(game -> {
+                    long mismatches = 0;
+                    while (game.next())
+                        if (!verify(game))
+                            mismatches++;
+                    return mismatches;
+                })
+                .sum();
+    }
+    
+    /**
+     * Replays the current game of the cursor through a {@link JassGame} of the recorded seed,
+     * with players playing the recorded cards. The game must have been recorded by the same
+     * version of {@link JassGame}, which deals the same hands for the same seed.
+     * @param game a cursor placed on a recorded game.
+     * @throws IllegalStateException if a player is dealt a hand not containing its recorded card.
+     * @return the packed version of the score at the end of the replayed game.
+     */
+    public static long replayThroughGame(GameLogReader.Cursor game) {
+        Script script = new Script(game);
+        Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+        Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+        Player seat = script.seat();
+        for (PlayerId p : PlayerId.ALL) {
+            players.put(p, seat);
+            playerNames.put(p, p.name());
+        }
+        
+        JassGame jassGame = new JassGame(game.seed(), players, playerNames);
+        while (!jassGame.isGameOver())
+            jassGame.advanceToEndOfNextTrick();
+        return script.finalScore;
+    }
+    
+    /*
+     * The recorded cards of a game, played in order by the players of all the seats.
+     */
+    private static final class Script {
+        private final GameLogReader.Cursor game;
+        private int turn;
+        private int index;
+        private long finalScore;
+        
+        private Script(GameLogReader.Cursor game) {
+            this.game = game;
+        }
+        
+        private Player seat() {
+            return new Player() {
+                @Override
+                public Card cardToPlay(TurnState state, CardSet hand) {
+                    return nextCard(state, hand);
+                }
+                
+                @Override
+                public void updateScore(Score score) {
+                    finalScore = score.packed();
+                }
+            };
+        }
+        
+        private Card nextCard(TurnState state, CardSet hand) {
+            if (index == game.cardCount(turn)) {
+                turn++;
+                index = 0;
+            }
+            if (turn >= game.turnCount())
+                throw new IllegalStateException("The replayed game is longer than the recorded one");
+            
+            Card c = Card.ofPacked(game.card(turn, index++));
+            if (!state.trick().playableCards(hand).contains(c))
+                throw new IllegalStateException("Unplayable card " + c + " in turn " + turn);
+            return c;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package javass.record;
+
+import static javass.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javass.jass.Card;
+import javass.jass.Card.Color;
+import javass.jass.Card.Rank;
+import javass.jass.CardSet;
+import javass.jass.Jass;
+import javass.jass.JassGame;
+import javass.jass.MctsPlayer;
+import javass.jass.PackedCard;
+import javass.jass.PackedCardSet;
+import javass.jass.Player;
+import javass.jass.PlayerId;
+import javass.jass.TurnState;
+
+/**
+ * Generates training data by self-play of {@link MctsPlayer}s in {@link JassGame}s.
+ * Each decision of a completed turn becomes a row, written column by column in
+ * files of big-endian primitives: the unplayed cards, the hand and the trick
+ * before the decision, the score at the end of the turn, the card chosen and
+ * the number of visits the search gave to each of the 36 cards.
+ * Several generator threads fill chunks of rows which a single writer thread
+ * writes, the generators waiting when the writer falls behind.
+ * @author Charles BEAUVILLE
+ * @author Celia HOUSSIAUX
+ *
+ */
+public final class SelfPlayExporter {
+    
+    /**
+     * The names of the files of the columns.
+     */
+    public static final String UNPLAYED_FILE = "unplayed.bin";
+    public static final String HAND_FILE = "hand.bin";
+    public static final String TRICK_FILE = "trick.bin";
+    public static final String SCORE_FILE = "score.bin";
+    public static final String CARD_FILE = "card.bin";
+    public static final String VISITS_FILE = "visits.bin";
+    
+    /**
+     * The number of visit counts of a row, one per card in the order of {@link #cardIndex(int)}.
+     */
+    public static final int VISITS_PER_ROW = Color.COUNT * Rank.COUNT;
+    
+    private static final int DEFAULT_GAMES = 100;
+    private static final int DEFAULT_ITERATIONS = 1000;
+    private static final int TURN_ROWS = PlayerId.COUNT * Jass.HAND_SIZE;
+    private static final int CHUNK_ROWS = 1 << 14;
+    private static final int QUEUED_CHUNKS = 4;
+    private static final String[] FILES = { UNPLAYED_FILE, HAND_FILE, TRICK_FILE, SCORE_FILE, CARD_FILE, VISITS_FILE };
+    private static final int[] ROW_SIZES = { Long.BYTES, Long.BYTES, Integer.BYTES, Long.BYTES, Byte.BYTES, VISITS_PER_ROW * Integer.BYTES };
+    
+    private final Path directory;
+    private final int iterations;
+    private final int threads;
+    
+    /**
+     * Creates an exporter of self-play data.
+     * @param directory the directory of the column files, created if needed.
+     * @param iterations the number of iterations of the searches of the players.
+     * @param threads the number of generator threads.
+     * @throws IllegalArgumentException if threads is not positive.
+     */
+    public SelfPlayExporter(Path directory, int iterations, int threads) {
+        checkArgument(threads > 0);
+        
+        this.directory = directory;
+        this.iterations = iterations;
+        this.threads = threads;
+    }
+    
+    /**
+     * Exports self-play games.
+     * @param args {directory} [{games} [{iterations} [{threads} [{seed}]]]]
+     * @throws IOException if the files cannot be written.
+     * @throws InterruptedException if the main thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path directory = Paths.get(args[0]);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_GAMES;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ITERATIONS;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        
+        long start = System.nanoTime();
+        long rows = new SelfPlayExporter(directory, iterations, threads).export(games, seed);
+        System.out.printf("%d rows in %.1f s%n", rows, (System.nanoTime() - start) / 1e9);
+    }
+    
+    /**
+     * Gives the index of a card in the visit counts of a row.
+     * @param pkCard the packed version of a card.
+     * @return an int between 0 and 35, the index of the card.
+     */
+    public static int cardIndex(int pkCard) {
+        return PackedCard.color(pkCard).ordinal() * Rank.COUNT + PackedCard.rank(pkCard).ordinal();
+    }
+    
+    /**
+     * Plays the given number of games and appends their rows to the column files.
+     * @param games the number of games to play.
+     * @param seed the seed from which the seeds of the games and of the players are drawn.
+     * @throws IOException if the files cannot be written.
+     * @throws InterruptedException if the calling thread is interrupted.
+     * @return the number of rows written.
+     */
+    public long export(int games, long seed) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        AtomicInteger remainingGames = new AtomicInteger(games);
+        SplittableRandom rng = new SplittableRandom(seed);
+        ExecutorService generators = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "self-play");
+            t.setDaemon(true);
+            return t;
+        });
+        
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom threadRng = rng.split();
+            tasks.add(generators.submit(() -> {
+                generate(remainingGames, threadRng, queue);
+                return null;
+            }));
+        }
+        generators.shutdown();
+        
+        long rows = 0;
+        boolean written = false;
+        try (ColumnWriter writer = new ColumnWriter(directory)) {
+            int running = threads;
+            //Writes the chunks until every generator has sent its empty chunk.
+            while (running > 0) {
+                Chunk chunk = queue.take();
+                if (chunk.size == 0)
+                    running--;
+                else {
+                    writer.write(chunk);
+                    rows += chunk.size;
+                }
+            }
+            written = true;
+        } finally {
+            //The writer failed: stops the generators, interrupting those blocked on the full queue.
+            if (!written) {
+                remainingGames.set(0);
+                generators.shutdownNow();
+                queue.clear();
+            }
+        }
+        
+        for (Future<?> task : tasks)
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException)
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                throw new IllegalStateException(e.getCause());
+            }
+        return rows;
+    }
+    
+    /*
+     * Plays games until there are none left, sending full chunks to the writer, then an empty chunk.
+     */
+    private void generate(AtomicInteger remainingGames, SplittableRandom rng, BlockingQueue<Chunk> queue) throws InterruptedException {
+        Recorder recorder = new Recorder(queue);
+        boolean abandoned = false;
+        try {
+            while (remainingGames.getAndDecrement() > 0) {
+                Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+                Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+                for (PlayerId p : PlayerId.ALL) {
+                    players.put(p, recorder.seat(new MctsPlayer(p, rng.nextLong(), iterations)));
+                    playerNames.put(p, p.name());
+                }
+                
+                JassGame game = new JassGame(rng.nextLong(), players, playerNames);
+                while (!game.isGameOver())
+                    game.advanceToEndOfNextTrick();
+                //The rows of an unfinished last turn have no final score.
+                recorder.turnRows = 0;
+            }
+            recorder.flush();
+        } catch (InterruptedException e) {
+            //The writer failed and no longer waits for the empty chunk.
+            abandoned = true;
+            throw e;
+        } finally {
+            if (!abandoned)
+                queue.put(new Chunk(0));
+        }
+    }
+    
+    /*
+     * Rows of the columns, stored in primitive arrays.
+     */
+    private static final class Chunk {
+        private final long[] unplayed;
+        private final long[] hand;
+        private final int[] trick;
+        private final long[] score;
+        private final byte[] card;
+        private final int[] visits;
+        private int size;
+        
+        private Chunk(int capacity) {
+            unplayed = new long[capacity];
+            hand = new long[capacity];
+            trick = new int[capacity];
+            score = new long[capacity];
+            card = new byte[capacity];
+            visits = new int[capacity * VISITS_PER_ROW];
+            size = 0;
+        }
+    }
+    
+    /*
+     * Collects the decisions of the players of a generator thread, turn by turn.
+     */
+    private static final class Recorder {
+        private final BlockingQueue<Chunk> queue;
+        private final Chunk turn = new Chunk(TURN_ROWS);
+        private int turnRows;
+        private Chunk chunk = new Chunk(CHUNK_ROWS);
+        
+        private Recorder(BlockingQueue<Chunk> queue) {
+            this.queue = queue;
+        }
+        
+        private Player seat(MctsPlayer player) {
+            return new Player() {
+                @Override
+                public Card cardToPlay(TurnState state, CardSet hand) {
+                    Card c = player.cardToPlay(state, hand);
+                    try {
+                        record(player, state, hand, c);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    return c;
+                }
+            };
+        }
+        
+        private void record(MctsPlayer player, TurnState state, CardSet hand, Card c) throws InterruptedException {
+            //A new turn begins with all the cards unplayed.
+            if (state.packedUnplayedCards() == PackedCardSet.ALL_CARDS)
+                turnRows = 0;
+            
+            int row = turnRows++;
+            turn.unplayed[row] = state.packedUnplayedCards();
+            turn.hand[row] = hand.packed();
+            turn.trick[row] = state.packedTrick();
+            turn.card[row] = (byte) c.packed();
+            for (int pkCard = 0; pkCard < PackedCard.INVALID; pkCard++)
+                if (PackedCard.isValid(pkCard))
+                    turn.visits[row * VISITS_PER_ROW + cardIndex(pkCard)] = player.rootVisits(Card.ofPacked(pkCard));
+            
+            //The last card of the turn gives the final score of all its rows.
+            if (PackedCardSet.size(state.packedUnplayedCards()) == 1) {
+                long finalScore = state.withNewCardPlayedAndTrickCollected(c).packedScore();
+                if (chunk.size + turnRows > CHUNK_ROWS)
+                    flush();
+                
+                for (int i = 0; i < turnRows; i++) {
+                    int r = chunk.size++;
+                    chunk.unplayed[r] = turn.unplayed[i];
+                    chunk.hand[r] = turn.hand[i];
+                    chunk.trick[r] = turn.trick[i];
+                    chunk.score[r] = finalScore;
+                    chunk.card[r] = turn.card[i];
+                    System.arraycopy(turn.visits, i * VISITS_PER_ROW, chunk.visits, r * VISITS_PER_ROW, VISITS_PER_ROW);
+                }
+                turnRows = 0;
+            }
+        }
+        
+        private void flush() throws InterruptedException {
+            if (chunk.size > 0) {
+                //Blocks while the writer is QUEUED_CHUNKS chunks behind.
+                queue.put(chunk);
+                chunk = new Chunk(CHUNK_ROWS);
+            }
+        }
+    }
+    
+    /*
+     * Appends chunks to the column files through one direct buffer per column.
+     */
+    private static final class ColumnWriter implements AutoCloseable {
+        private final FileChannel[] channels;
+        private final ByteBuffer[] buffers;
+        
+        private ColumnWriter(Path directory) throws IOException {
+            channels = new FileChannel[FILES.length];
+            buffers = new ByteBuffer[FILES.length];
+            for (int i = 0; i < FILES.length; i++) {
+                channels[i] = FileChannel.open(directory.resolve(FILES[i]), 
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                buffers[i] = ByteBuffer.allocateDirect(CHUNK_ROWS * ROW_SIZES[i]);
+            }
+        }
+        
+        private void write(Chunk chunk) throws IOException {
+            buffers[0].asLongBuffer().put(chunk.unplayed, 0, chunk.size);
+            buffers[1].asLongBuffer().put(chunk.hand, 0, chunk.size);
+            buffers[2].asIntBuffer().put(chunk.trick, 0, chunk.size);
+            buffers[3].asLongBuffer().put(chunk.score, 0, chunk.size);
+            buffers[4].put(chunk.card, 0, chunk.size);
+            buffers[5].asIntBuffer().put(chunk.visits, 0, chunk.size * VISITS_PER_ROW);
+            
+            for (int i = 0; i < channels.length; i++) {
+                ByteBuffer b = buffers[i];
+                b.clear().limit(chunk.size * ROW_SIZES[i]);
+                while (b.hasRemaining())
+                    channels[i].write(b);
+                b.clear();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            for (FileChannel c : channels)
+                c.close();
+        }
+    }
+}